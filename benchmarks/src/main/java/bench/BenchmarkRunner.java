@@ -0,0 +1,61 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the engine benchmarks in throughput mode together with the gc profiler, so every result
+ * comes with its allocation rate. Command line options of JMH are passed through and win over these defaults;
+ * like the main class of JMH, {@code -h} and the list options only print and do not run anything.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line:");
+            System.err.println(" " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+        } else if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+        } else if (commandLine.shouldListWithParams()) {
+            new Runner(commandLine).listWithParams(commandLine);
+        } else if (commandLine.shouldListProfilers()) {
+            commandLine.listProfilers();
+        } else if (commandLine.shouldListResultFormats()) {
+            commandLine.listResultFormats();
+        } else {
+            new Runner(withDefaults(commandLine)).run();
+        }
+    }
+
+    private static Options withDefaults(CommandLineOptions commandLine) {
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getBenchModes().isEmpty())
+            options.mode(Mode.Throughput);
+        if (!commandLine.getTimeUnit().hasValue())
+            options.timeUnit(TimeUnit.SECONDS);
+        boolean gcProfiled = commandLine.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfiled)
+            options.addProfiler(GCProfiler.class);
+        return options.build();
+    }
+}
@@ -0,0 +1,61 @@
+package bench;
+
+import core.Card;
+import core.CardStack;
+import core.Direction;
+import core.exceptions.InvalidActionException;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link CardStack#push(Card)} for valid moves, moves going back by exactly 10 and invalid moves.
+ */
+@State(Scope.Thread)
+public class CardStackBenchmark {
+
+    private CardStack upStack;
+    private CardStack backwardsStack;
+    private CardStack invalidStack;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws InvalidActionException {
+        upStack = new CardStack(Direction.UP);
+        backwardsStack = new CardStack(Direction.UP);
+        backwardsStack.push(Card.of(20));
+        invalidStack = new CardStack(Direction.UP);
+        invalidStack.push(Card.of(50));
+        next = 2;
+    }
+
+    /**
+     * Pushes increasing cards and starts over with a new stack once the top is reached.
+     */
+    @Benchmark
+    public CardStack pushValid() throws InvalidActionException {
+        if (next > 98) {
+            upStack = new CardStack(Direction.UP);
+            next = 2;
+        }
+        upStack.push(Card.of(next++));
+        return upStack;
+    }
+
+    /**
+     * Alternates between going back by 10 and going forward by 10 again.
+     */
+    @Benchmark
+    public CardStack pushBackwards() throws InvalidActionException {
+        backwardsStack.push(Card.of(backwardsStack.getTopValue() == 20 ? 10 : 20));
+        return backwardsStack;
+    }
+
+    @Benchmark
+    public Object pushInvalid() {
+        try {
+            invalidStack.push(Card.of(30));
+            return invalidStack;
+        } catch (InvalidActionException e) {
+            return e;
+        }
+    }
+}
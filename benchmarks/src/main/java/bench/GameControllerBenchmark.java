@@ -0,0 +1,31 @@
+package bench;
+
+import core.MoveBuffer;
+import main.GameController;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures reading the state of a {@link GameController}.
+ */
+@State(Scope.Thread)
+public class GameControllerBenchmark {
+
+    private GameController gameController;
+    private MoveBuffer moves;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        gameController = new GameController(1L);
+        moves = new MoveBuffer();
+    }
+
+    @Benchmark
+    public main.State getGameState() {
+        return gameController.getGameState();
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        return gameController.legalMoves(moves);
+    }
+}
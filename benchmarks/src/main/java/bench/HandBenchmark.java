@@ -0,0 +1,51 @@
+package bench;
+
+import core.CardStack;
+import core.Deck;
+import core.Direction;
+import core.Hand;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * Measures the move check and drawing of {@link Hand}.
+ */
+@State(Scope.Thread)
+public class HandBenchmark {
+
+    private static final int HAND_SIZE = 8;
+
+    private Hand hand;
+    private List<CardStack> upStacks;
+    private List<CardStack> downStacks;
+    private Deck deck;
+    private long seed;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        hand = new Hand(HAND_SIZE);
+        hand.draw(new Deck(1L));
+        upStacks = List.of(new CardStack(Direction.UP), new CardStack(Direction.UP));
+        downStacks = List.of(new CardStack(Direction.DOWN), new CardStack(Direction.DOWN));
+        deck = new Deck(seed);
+    }
+
+    @Benchmark
+    public boolean canMakeMove() {
+        return hand.canMakeMove(upStacks, downStacks);
+    }
+
+    /**
+     * Draws a full hand into an empty hand. A new deck is shuffled once the old one runs out,
+     * which happens every 12th call.
+     */
+    @Benchmark
+    public Hand draw() {
+        if (deck.remaining() < HAND_SIZE)
+            deck = new Deck(++seed);
+        var freshHand = new Hand(HAND_SIZE);
+        freshHand.draw(deck);
+        return freshHand;
+    }
+}
@@ -0,0 +1,48 @@
+package bench;
+
+import core.Move;
+import core.MoveBuffer;
+import core.actions.PlayAction;
+import main.GameController;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures parsing and executing a {@link PlayAction}. Parsing does not need a game. Executing changes the game,
+ * so every play is taken back right away and the same game serves the whole iteration.
+ */
+public class PlayActionBenchmark {
+
+    private static final String[] RAW_ACTION = {"C42", "3"};
+
+    @State(Scope.Thread)
+    public static class Game {
+
+        private GameController gameController;
+        private PlayAction legalAction;
+        private long seed;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            gameController = new GameController(++seed);
+            var moves = new MoveBuffer();
+            gameController.legalMoves(moves);
+            int move = moves.get(0);
+            legalAction = new PlayAction(new String[]{"C" + Move.card(move), String.valueOf(Move.stack(move))});
+        }
+    }
+
+    @Benchmark
+    public PlayAction parse() {
+        return new PlayAction(RAW_ACTION);
+    }
+
+    /**
+     * Executes a legal play and takes it back, so undoing is part of the measured time.
+     */
+    @Benchmark
+    public String execute(Game game) {
+        String message = game.legalAction.execute(game.gameController);
+        game.gameController.undo();
+        return message;
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import bot.GreedyPolicy;
+import bot.GreedyStrategy;
+import core.Card;
+import core.Move;
+import core.MoveBuffer;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.openjdk.jmh.annotations.*;
+import sim.Simulator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures complete games per second, from dealing the cards to the last move.
+ */
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+
+    private final MoveBuffer moves = new MoveBuffer();
+    private final GreedyStrategy greedy = new GreedyStrategy();
+    private SplittableRandom random;
+    private long seed;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new SplittableRandom(1L);
+    }
+
+    /**
+     * Plays uniformly random legal moves through the GameController until the game ends.
+     */
+    @Benchmark
+    public int randomPlayout() throws InvalidActionException {
+        var gameController = new GameController(++seed);
+        while (true) {
+            gameController.legalMoves(moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            if (!Move.isStop(move)) {
+                gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+            } else if (gameController.endTurn() != ActionResult.TURN_END) {
+                return gameController.cardsLeft();
+            }
+        }
+    }
+
+    @Benchmark
+    public ActionResult greedyPlayout() {
+        return Simulator.playGame(new GameController(++seed), greedy);
+    }
+
+    @Benchmark
+    public int packedGreedyPlayout() {
+        var game = new GameController(++seed).pack();
+        GreedyPolicy.playOut(game, moves);
+        return game.cardsLeft();
+    }
+}
@@ -0,0 +1,82 @@
+package bot;
+
+import core.CardStack;
+import core.Direction;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedGame;
+
+/**
+ * The move choice of the greedy strategy as plain functions, so it can be reused for fast playouts
+ * on a {@link PackedGame}: play the card with the smallest distance to a stack top until the minimum
+ * amount of cards is played, after that only play moves that cost (almost) nothing.
+ */
+public final class GreedyPolicy {
+
+    static final int CHEAP_MOVE_COST = 2;
+    static final int BACKWARDS_MOVE_COST = -10;
+
+    private GreedyPolicy() {
+        // Is just a namespace for the policy functions
+    }
+
+    /**
+     * Calculates how much of the stack's range a legal move uses up.
+     *
+     * @param top   The value of the top card of the stack
+     * @param stack The number of the stack (1 - 4)
+     * @param card  The value of the card
+     * @return The cost of the move, negative for moves that go back by 10
+     */
+    public static int cost(int top, int stack, int card) {
+        boolean backwards = PackedGame.direction(stack) == Direction.UP ? card < top : card > top;
+        return backwards ? BACKWARDS_MOVE_COST : CardStack.distance(top, card);
+    }
+
+    /**
+     * Chooses the next move.
+     *
+     * @param game  The game to choose a move for
+     * @param moves A buffer that is overwritten with the legal moves
+     * @return The chosen move encoded by {@link Move}
+     */
+    public static int chooseMove(PackedGame game, MoveBuffer moves) {
+        game.legalMoves(moves);
+
+        int bestMove = Move.STOP;
+        int bestCost = Integer.MAX_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isStop(move))
+                continue;
+
+            int cost = cost(game.top(Move.stack(move)), Move.stack(move), Move.card(move));
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestMove = move;
+            }
+        }
+
+        if (game.cardsPlayed() >= PackedGame.MINIMUM_CARDS_PER_TURN && bestCost > CHEAP_MOVE_COST)
+            return Move.STOP;
+        return bestMove;
+    }
+
+    /**
+     * Plays the game greedily until it is won or lost.
+     *
+     * @param game  The game to play, it is modified
+     * @param moves A buffer used for the legal moves
+     */
+    public static void playOut(PackedGame game, MoveBuffer moves) {
+        while (!game.isWon() && !game.isLost()) {
+            int move = chooseMove(game, moves);
+            if (!Move.isStop(move))
+                game.play(move);
+            else if (game.cardsPlayed() >= PackedGame.MINIMUM_CARDS_PER_TURN)
+                game.endTurn();
+            else
+                return;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package bot;
+
+import core.Move;
+import core.MoveBuffer;
+import core.PlayResult;
+import main.GameController;
+
+/**
+ * Plays the card with the smallest distance to a stack top until the minimum amount of cards is played.
+ * After that only moves that cost (almost) nothing are played, e.g. jumping back by exactly 10.
+ */
+public class GreedyStrategy implements Strategy {
+
+    private static final int MINIMUM_CARDS_PER_TURN = 2;
+
+    private final MoveBuffer moves = new MoveBuffer();
+
+    @Override
+    public void playTurn(GameController gameController) {
+        int played = 0;
+        while (true) {
+            gameController.legalMoves(moves);
+
+            int bestMove = Move.STOP;
+            int bestCost = Integer.MAX_VALUE;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (Move.isStop(move))
+                    continue;
+
+                int stack = Move.stack(move);
+                int cost = GreedyPolicy.cost(gameController.getTopValue(stack), stack, Move.card(move));
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestMove = move;
+                }
+            }
+
+            if (Move.isStop(bestMove) || (played >= MINIMUM_CARDS_PER_TURN && bestCost > GreedyPolicy.CHEAP_MOVE_COST))
+                return;
+
+            if (gameController.tryPlay(Move.card(bestMove), Move.stack(bestMove)) != PlayResult.OK)
+                return;
+            played++;
+        }
+    }
+}
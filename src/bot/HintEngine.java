@@ -0,0 +1,255 @@
+package bot;
+
+import core.Direction;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedGame;
+import main.GameController;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Suggests moves within a fixed time budget. The search runs on a background thread with iterative deepening
+ * over the plays of the current turn: first all lines with the minimum amount of cards are searched, then lines
+ * with one more card, and so on. When the budget is used up, the best move of the deepest finished iteration
+ * is returned and the search keeps going in the background for a while.
+ * <p>
+ * The order of the deck is unknown to the player, so the search never looks past the end of the turn.
+ * A turn is rated by the room left on the stacks plus a bonus for every card played, so cheap extra plays
+ * and jumps back by 10 are worth it while expensive ones are not. Positions with a card that can never be
+ * played again are lost. Results are cached per position, so asking again for the same position is instant.
+ */
+public class HintEngine implements AutoCloseable {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final int CARD_VALUE = GreedyPolicy.CHEAP_MOVE_COST + 1;
+    private static final int LOST = Integer.MIN_VALUE / 2;
+    private static final int WON = Integer.MAX_VALUE / 2;
+    private static final int NODES_PER_CLOCK_CHECK = 1024;
+    private static final int ANALYSIS_FACTOR = 20;
+
+    private final long budgetNanos;
+    private final long analysisNanos;
+    private final ExecutorService executor;
+    private final Map<Long, Integer> cache = Collections.synchronizedMap(new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+    private final AtomicLong cacheHits = new AtomicLong();
+    private volatile Search current;
+
+    /**
+     * Creates an engine that keeps analysing a position for twenty times the budget.
+     *
+     * @param budget The time within which a hint is returned
+     */
+    public HintEngine(Duration budget) {
+        this(budget, budget.multipliedBy(ANALYSIS_FACTOR));
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param budget         The time within which a hint is returned
+     * @param analysisBudget How long a position is searched in total, the result is cached
+     */
+    public HintEngine(Duration budget, Duration analysisBudget) {
+        this.budgetNanos = budget.toNanos();
+        this.analysisNanos = Math.max(budgetNanos, analysisBudget.toNanos());
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "hint-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Suggests a move for the current position of the game. Returns within the budget.
+     *
+     * @param gameController The game
+     * @return The suggested move encoded by {@link Move}
+     */
+    public int hint(GameController gameController) {
+        long start = System.nanoTime();
+        var game = gameController.pack();
+        long key = key(game);
+        var cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        var previous = current;
+        if (previous != null)
+            previous.cancel();
+        var search = new Search(game, key, start + analysisNanos);
+        current = search;
+        executor.execute(search);
+
+        try {
+            search.finished.await(start + budgetNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return search.bestMove;
+    }
+
+    /**
+     * Returns how many hints were answered from the cache.
+     *
+     * @return The amount of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    private static long key(PackedGame game) {
+        long hash = mix(game.hand().getLow());
+        hash = mix(hash ^ game.hand().getHigh());
+        return mix(hash ^ ((long) game.packedTops() << 16 | game.deckRemaining() << 8 | game.cardsPlayed()));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Stops the search that is still running and the thread of the engine.
+     */
+    @Override
+    public void close() {
+        var search = current;
+        if (search != null)
+            search.cancel();
+        executor.shutdownNow();
+    }
+
+    private class Search implements Runnable {
+
+        private final PackedGame game;
+        private final long key;
+        private final long deadline;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final MoveBuffer[] moves = new MoveBuffer[PackedGame.HAND_SIZE + 1];
+        private volatile int bestMove;
+        private volatile boolean cancelled;
+        private long nodes;
+        private boolean aborted;
+        private boolean cut;
+        private int iterationMove;
+
+        private Search(PackedGame game, long key, long deadline) {
+            this.game = game;
+            this.key = key;
+            this.deadline = deadline;
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = new MoveBuffer();
+            }
+            // Answer with the greedy move if not even the first iteration finishes in time
+            this.bestMove = GreedyPolicy.chooseMove(game.copy(), moves[0]);
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int played = game.cardsPlayed();
+                int maxPlays = played + game.hand().size();
+                for (int plays = Math.max(PackedGame.MINIMUM_CARDS_PER_TURN, played + 1); plays <= maxPlays; plays++) {
+                    cut = false;
+                    iterationMove = bestMove;
+                    search(0, plays - game.cardsPlayed(), 1);
+                    if (aborted)
+                        break;
+
+                    bestMove = iterationMove;
+                    cache.put(key, iterationMove);
+                    if (!cut)
+                        break; // The whole turn was searched
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Searches the plays of the turn.
+         *
+         * @param ply      The amount of moves made since the root
+         * @param depth    How many more cards may be played
+         * @param minStack The lowest stack that may still be played on, plays on different stacks can be swapped
+         * @return The rating of the best line
+         */
+        private int search(int ply, int depth, int minStack) {
+            if (++nodes % NODES_PER_CLOCK_CHECK == 0 && (cancelled || System.nanoTime() > deadline))
+                aborted = true;
+            if (aborted)
+                return LOST;
+            if (game.isWon())
+                return WON;
+            if (game.isLost() || game.hasDeadCard())
+                return LOST;
+
+            var buffer = moves[ply];
+            game.legalMoves(buffer);
+            int best = LOST;
+            if (buffer.canStop()) {
+                best = rate();
+                if (ply == 0)
+                    iterationMove = Move.STOP;
+            }
+            if (depth <= 0) {
+                cut |= buffer.size() > (buffer.canStop() ? 1 : 0);
+                return best == LOST ? rate() : best;
+            }
+
+            // The best move of the last iteration is searched first
+            if (ply == 0 && !Move.isStop(bestMove) && buffer.contains(bestMove))
+                best = Math.max(best, tryMove(bestMove, ply, depth, best));
+
+            for (int i = 0; i < buffer.size(); i++) {
+                int move = buffer.get(i);
+                if (Move.isStop(move) || Move.stack(move) < minStack || (ply == 0 && move == bestMove))
+                    continue;
+                best = Math.max(best, tryMove(move, ply, depth, best));
+            }
+            return best;
+        }
+
+        private int tryMove(int move, int ply, int depth, int best) {
+            int previousTop = game.play(move);
+            int rating = search(ply + 1, depth - 1, Move.stack(move));
+            game.undoPlay(move, previousTop);
+            if (ply == 0 && rating > best && !aborted)
+                iterationMove = move;
+            return rating;
+        }
+
+        /**
+         * Rates the position at the end of the turn.
+         */
+        private int rate() {
+            int room = 0;
+            for (int stack = 1; stack <= PackedGame.STACKS; stack++) {
+                int top = game.top(stack);
+                room += PackedGame.direction(stack) == Direction.UP ? 99 - top : top - 1;
+            }
+            return room + CARD_VALUE * game.cardsPlayed();
+        }
+    }
+}
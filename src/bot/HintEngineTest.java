@@ -0,0 +1,31 @@
+package bot;
+
+import core.Move;
+import core.MoveBuffer;
+import main.GameController;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class HintEngineTest {
+
+    @Test
+    public void testHintIsLegalAndCached() {
+        // The budget is long enough to search the whole turn, so the hint is cached when it is returned
+        try (var engine = new HintEngine(Duration.ofSeconds(10), Duration.ofSeconds(10))) {
+            var gameController = new GameController(9L);
+            var moves = new MoveBuffer();
+            gameController.legalMoves(moves);
+
+            int hint = engine.hint(gameController);
+            assertTrue(moves.contains(hint));
+            assertFalse(Move.isStop(hint));
+
+            assertEquals(0, engine.getCacheHits());
+            assertEquals(hint, engine.hint(gameController));
+            assertEquals(1, engine.getCacheHits());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package bot;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A node of the search tree shared by all search threads. Children are kept in a linked list that is
+ * only ever prepended to with compare and swap, so the tree can be grown without locks.
+ * Rewards are stored as fixed point numbers to be able to add them atomically.
+ */
+class MctsNode {
+
+    static final long REWARD_SCALE = 1_000_000L;
+
+    private static final AtomicReferenceFieldUpdater<MctsNode, MctsNode> FIRST_CHILD =
+            AtomicReferenceFieldUpdater.newUpdater(MctsNode.class, MctsNode.class, "firstChild");
+    private static final AtomicLongFieldUpdater<MctsNode> VISITS =
+            AtomicLongFieldUpdater.newUpdater(MctsNode.class, "visits");
+    private static final AtomicLongFieldUpdater<MctsNode> REWARD =
+            AtomicLongFieldUpdater.newUpdater(MctsNode.class, "reward");
+    private static final AtomicLongFieldUpdater<MctsNode> PENDING =
+            AtomicLongFieldUpdater.newUpdater(MctsNode.class, "pending");
+
+    final int move;
+    final MctsNode next;
+
+    private volatile MctsNode firstChild;
+    private volatile long visits;
+    private volatile long reward;
+    private volatile long pending;
+
+    MctsNode(int move, MctsNode next) {
+        this.move = move;
+        this.next = next;
+    }
+
+    MctsNode firstChild() {
+        return firstChild;
+    }
+
+    MctsNode child(int move) {
+        for (var child = firstChild; child != null; child = child.next) {
+            if (child.move == move)
+                return child;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the child for the move, creating it if no other thread did so yet.
+     */
+    MctsNode addChild(int move) {
+        while (true) {
+            var head = firstChild;
+            for (var child = head; child != null; child = child.next) {
+                if (child.move == move)
+                    return child;
+            }
+            var child = new MctsNode(move, head);
+            if (FIRST_CHILD.compareAndSet(this, head, child))
+                return child;
+        }
+    }
+
+    /**
+     * Counts a visit before the result is known. The visit stays pending until its reward is added,
+     * pending visits do not change the mean reward.
+     */
+    void addVisit() {
+        VISITS.incrementAndGet(this);
+        PENDING.incrementAndGet(this);
+    }
+
+    void addReward(double value) {
+        REWARD.addAndGet(this, (long) (value * REWARD_SCALE));
+        PENDING.decrementAndGet(this);
+    }
+
+    long visits() {
+        return visits;
+    }
+
+    /**
+     * Returns the amount of visits whose rollout is still running on another thread.
+     */
+    long pending() {
+        return pending;
+    }
+
+    /**
+     * Returns the mean reward of the finished visits.
+     */
+    double meanReward() {
+        long n = visits - pending;
+        return n <= 0 ? 0 : (double) reward / REWARD_SCALE / n;
+    }
+}
@@ -0,0 +1,272 @@
+package bot;
+
+import core.Move;
+import core.MoveBuffer;
+import core.PackedGame;
+import core.PlayResult;
+import main.GameController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search player. The order of the remaining deck is unknown to the player, so every
+ * rollout shuffles the remaining cards (determinization) and plays the game out greedily.
+ * The tree covers the moves of the current turn, which do not depend on the unknown cards.
+ * All threads share one tree; virtual loss keeps them from searching the same lines.
+ * Children are added cheapest move first and only as the visits of a node grow (progressive widening),
+ * since most moves of a position are obviously bad.
+ * A move is chosen as soon as either the rollout or the time budget is used up.
+ */
+public class MctsStrategy implements Strategy, AutoCloseable {
+
+    private static final double EXPLORATION = 0.1;
+    /**
+     * How much a running rollout lowers the score of a node for the other threads. A rollout's reward
+     * differs by about 0.01 per card, so a full virtual loss of 1 would make threads avoid the best moves.
+     */
+    private static final double VIRTUAL_LOSS = 0.01;
+    private static final int TOTAL_CARDS = 97;
+    private static final int STOP_COST = GreedyPolicy.CHEAP_MOVE_COST;
+    private static final int NO_MOVE = -1;
+
+    private final int threads;
+    private final long rolloutBudget;
+    private final long timeBudgetNanos;
+    private final ExecutorService executor;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final SplittableRandom seeds;
+
+    /**
+     * Creates a player that searches on all available cores.
+     *
+     * @param rolloutBudget The maximum amount of rollouts per move
+     * @param timeBudget    The maximum time spent per move
+     */
+    public MctsStrategy(long rolloutBudget, Duration timeBudget) {
+        this(Runtime.getRuntime().availableProcessors(), rolloutBudget, timeBudget);
+    }
+
+    /**
+     * Creates a player.
+     *
+     * @param threads       The amount of threads searching the shared tree
+     * @param rolloutBudget The maximum amount of rollouts per move
+     * @param timeBudget    The maximum time spent per move
+     */
+    public MctsStrategy(int threads, long rolloutBudget, Duration timeBudget) {
+        this(threads, rolloutBudget, timeBudget, new SplittableRandom());
+    }
+
+    /**
+     * Creates a player whose rollouts are shuffled with the given seed. With a single thread and a time budget
+     * that is never reached, the player makes the same moves on every run.
+     *
+     * @param threads       The amount of threads searching the shared tree
+     * @param rolloutBudget The maximum amount of rollouts per move
+     * @param timeBudget    The maximum time spent per move
+     * @param seed          The seed of the shuffles
+     */
+    public MctsStrategy(int threads, long rolloutBudget, Duration timeBudget, long seed) {
+        this(threads, rolloutBudget, timeBudget, new SplittableRandom(seed));
+    }
+
+    private MctsStrategy(int threads, long rolloutBudget, Duration timeBudget, SplittableRandom seeds) {
+        this.seeds = seeds;
+        this.threads = threads;
+        this.rolloutBudget = rolloutBudget;
+        this.timeBudgetNanos = timeBudget.toNanos();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "mcts-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void playTurn(GameController gameController) {
+        while (true) {
+            int move = chooseMove(gameController);
+            if (Move.isStop(move))
+                return;
+
+            if (gameController.tryPlay(Move.card(move), Move.stack(move)) != PlayResult.OK)
+                return;
+        }
+    }
+
+    /**
+     * Searches the current position of the game.
+     *
+     * @param gameController The game to choose a move for
+     * @return The chosen move encoded by {@link Move}
+     */
+    public int chooseMove(GameController gameController) {
+        if (gameController.legalMoves(moves) == 1)
+            return moves.get(0);
+
+        var root = gameController.pack();
+        var tree = new MctsNode(Move.STOP, null);
+        var rollouts = new AtomicLong();
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        var workers = new ArrayList<Callable<Void>>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(root, tree, rollouts, deadline, seeds.split()));
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(workers)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+
+        var best = mostVisited(tree);
+        // Without any expanded child, e.g. if the deadline passed right away, the greedy move is still legal
+        return best == null ? GreedyPolicy.chooseMove(root, moves) : best.move;
+    }
+
+    private static MctsNode mostVisited(MctsNode tree) {
+        MctsNode best = null;
+        for (var child = tree.firstChild(); child != null; child = child.next) {
+            if (best == null || child.visits() > best.visits())
+                best = child;
+        }
+        return best;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private class Worker implements Callable<Void> {
+
+        private final PackedGame root;
+        private final PackedGame game;
+        private final byte[] deck;
+        private final MctsNode tree;
+        private final AtomicLong rollouts;
+        private final long deadline;
+        private final SplittableRandom random;
+        private final MoveBuffer legal = new MoveBuffer();
+        private final MctsNode[] path = new MctsNode[MoveBuffer.MAX_MOVES];
+
+        private Worker(PackedGame root, MctsNode tree, AtomicLong rollouts, long deadline, SplittableRandom random) {
+            this.root = root;
+            this.deck = new byte[root.deckRemaining()];
+            for (int i = 0; i < deck.length; i++) {
+                deck[i] = (byte) root.deckCard(i);
+            }
+            this.game = root.withRemainingDeck(deck);
+            this.tree = tree;
+            this.rollouts = rollouts;
+            this.deadline = deadline;
+            this.random = random;
+        }
+
+        @Override
+        public Void call() {
+            while (rollouts.getAndIncrement() < rolloutBudget && System.nanoTime() < deadline) {
+                shuffleDeck();
+                game.copyPositionFrom(root);
+                iterate();
+            }
+            return null;
+        }
+
+        private void shuffleDeck() {
+            for (int i = deck.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                var tmp = deck[i];
+                deck[i] = deck[j];
+                deck[j] = tmp;
+            }
+        }
+
+        private void iterate() {
+            int depth = 0;
+            var node = tree;
+            node.addVisit();
+            path[depth++] = node;
+
+            while (!game.isWon() && !game.isLost()) {
+                game.legalMoves(legal);
+                node = expandOrSelect(node);
+                node.addVisit();
+                path[depth++] = node;
+
+                if (Move.isStop(node.move)) {
+                    if (game.cardsPlayed() >= PackedGame.MINIMUM_CARDS_PER_TURN)
+                        game.endTurn();
+                    break;
+                }
+                game.play(node.move);
+                if (node.visits() == 1)
+                    break;
+            }
+
+            GreedyPolicy.playOut(game, legal);
+            double reward = 1.0 - game.cardsLeft() / (double) TOTAL_CARDS;
+            for (int i = 0; i < depth; i++) {
+                path[i].addReward(reward);
+            }
+        }
+
+        private MctsNode expandOrSelect(MctsNode node) {
+            int children = 0;
+            for (var child = node.firstChild(); child != null; child = child.next) {
+                children++;
+            }
+
+            if (children < legal.size() && children < 1 + Math.sqrt(node.visits())) {
+                int move = cheapestUnexpanded(node);
+                // Another thread may have expanded the last move in the meantime
+                if (move != NO_MOVE)
+                    return node.addChild(move);
+            }
+
+            double logVisits = Math.log(Math.max(1, node.visits()));
+            MctsNode best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (var child = node.firstChild(); child != null; child = child.next) {
+                long visits = Math.max(1, child.visits());
+                double score = child.meanReward() - VIRTUAL_LOSS * child.pending() / visits
+                        + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private int cheapestUnexpanded(MctsNode node) {
+            int bestMove = NO_MOVE;
+            int bestCost = Integer.MAX_VALUE;
+            for (int i = 0; i < legal.size(); i++) {
+                int move = legal.get(i);
+                if (node.child(move) != null)
+                    continue;
+
+                int cost = Move.isStop(move) ? STOP_COST
+                        : GreedyPolicy.cost(game.top(Move.stack(move)), Move.stack(move), Move.card(move));
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestMove = move;
+                }
+            }
+            return bestMove;
+        }
+    }
+}
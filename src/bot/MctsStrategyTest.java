@@ -0,0 +1,46 @@
+package bot;
+
+import core.DealStream;
+import core.Move;
+import core.MoveBuffer;
+import core.PlayResult;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class MctsStrategyTest {
+
+    @Test
+    public void testEveryMoveIsLegal() throws InvalidActionException {
+        try (var strategy = new MctsStrategy(2, 300, Duration.ofSeconds(10))) {
+            assertPlaysLegally(strategy, new GameController(DealStream.seedFor(1L, 0)));
+        }
+    }
+
+    @Test
+    public void testMoveIsLegalWithoutSearch() throws InvalidActionException {
+        try (var strategy = new MctsStrategy(2, 0, Duration.ZERO)) {
+            assertPlaysLegally(strategy, new GameController(DealStream.seedFor(1L, 1)));
+        }
+    }
+
+    private static void assertPlaysLegally(MctsStrategy strategy, GameController gameController) throws InvalidActionException {
+        var moves = new MoveBuffer();
+        while (true) {
+            int move = strategy.chooseMove(gameController);
+            gameController.legalMoves(moves);
+            assertTrue(moves.contains(move));
+
+            if (!Move.isStop(move)) {
+                assertEquals(PlayResult.OK, gameController.tryPlay(Move.card(move), Move.stack(move)));
+            } else if (gameController.endTurn() != ActionResult.TURN_END) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package bot;
+
+import main.GameController;
+
+/**
+ * A pluggable player that drives a {@link GameController} without any user interface.
+ * Implementations play the cards of a single turn directly on the controller; ending the turn
+ * is left to the caller.
+ */
+public interface Strategy {
+
+    /**
+     * Plays the cards for the current turn.
+     *
+     * @param gameController The game to play on
+     */
+    void playTurn(GameController gameController);
+}
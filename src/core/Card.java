@@ -7,12 +7,34 @@ import java.util.Objects;
  */
 public class Card {
 
+    private static final int MIN_VALUE = 1;
+    private static final int MAX_VALUE = 99;
+    private static final Card[] CARDS = new Card[MAX_VALUE + 1];
+
+    static {
+        for (int i = MIN_VALUE; i <= MAX_VALUE; i++) {
+            CARDS[i] = new Card(i);
+        }
+    }
+
     private final Integer value;
 
     public Card(Integer value) {
         this.value = value;
     }
 
+    /**
+     * Returns the shared instance for the given value. Values outside of 1 - 99 are not interned.
+     *
+     * @param value The value of the card
+     * @return The card with the given value
+     */
+    public static Card of(int value) {
+        if (value >= MIN_VALUE && value <= MAX_VALUE)
+            return CARDS[value];
+        return new Card(value);
+    }
+
     public Integer getValue() {
         return value;
     }
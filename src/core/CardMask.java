@@ -0,0 +1,187 @@
+package core;
+
+/**
+ * A set of card values backed by two longs. Bit i of the mask is set if card i is contained.
+ * Card values 0 - 127 can be stored, which covers all cards of the game (1 - 99).
+ * All queries are answered with a few bit operations instead of iterating over the cards.
+ */
+public final class CardMask {
+
+    private static final int BITS_PER_WORD = 64;
+
+    private long low;
+    private long high;
+
+    public CardMask() {
+    }
+
+    public CardMask(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    public void add(int card) {
+        if (card < BITS_PER_WORD)
+            low |= 1L << card;
+        else
+            high |= 1L << (card - BITS_PER_WORD);
+    }
+
+    public void remove(int card) {
+        if (card < BITS_PER_WORD)
+            low &= ~(1L << card);
+        else
+            high &= ~(1L << (card - BITS_PER_WORD));
+    }
+
+    public boolean contains(int card) {
+        return contains(low, high, card);
+    }
+
+    /**
+     * Checks a card against a mask given as its two words, for callers that combine masks without allocating.
+     */
+    static boolean contains(long low, long high, int card) {
+        if (card < 0 || card >= 2 * BITS_PER_WORD)
+            return false;
+        if (card < BITS_PER_WORD)
+            return (low & (1L << card)) != 0;
+        return (high & (1L << (card - BITS_PER_WORD))) != 0;
+    }
+
+    public int size() {
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    public boolean isEmpty() {
+        return (low | high) == 0;
+    }
+
+    /**
+     * Overwrites this mask with the contents of another one.
+     *
+     * @param other The mask to copy
+     */
+    public void set(CardMask other) {
+        low = other.low;
+        high = other.high;
+    }
+
+    public void clear() {
+        low = 0;
+        high = 0;
+    }
+
+    /**
+     * Counts the cards that are strictly greater than the given value.
+     *
+     * @param value The exclusive lower bound
+     * @return The amount of cards above the value
+     */
+    public int countAbove(int value) {
+        return Long.bitCount(low & aboveLow(value)) + Long.bitCount(high & aboveHigh(value));
+    }
+
+    /**
+     * Counts the cards that are strictly lower than the given value.
+     *
+     * @param value The exclusive upper bound
+     * @return The amount of cards below the value
+     */
+    public int countBelow(int value) {
+        return Long.bitCount(low & ~aboveLow(value - 1)) + Long.bitCount(high & ~aboveHigh(value - 1));
+    }
+
+    public boolean anyAbove(int value) {
+        return (low & aboveLow(value)) != 0 || (high & aboveHigh(value)) != 0;
+    }
+
+    public boolean anyBelow(int value) {
+        return (low & ~aboveLow(value - 1)) != 0 || (high & ~aboveHigh(value - 1)) != 0;
+    }
+
+    /**
+     * Returns the lowest card that is greater than or equal to the given value.
+     *
+     * @param from The inclusive lower bound
+     * @return The card or -1 if there is no such card
+     */
+    public int next(int from) {
+        return next(low, high, from);
+    }
+
+    static int next(long low, long high, int from) {
+        long lowBits = low & aboveLow(from - 1);
+        if (lowBits != 0)
+            return Long.numberOfTrailingZeros(lowBits);
+        long highBits = high & aboveHigh(from - 1);
+        if (highBits != 0)
+            return BITS_PER_WORD + Long.numberOfTrailingZeros(highBits);
+        return -1;
+    }
+
+    /**
+     * Returns the highest card that is lower than or equal to the given value.
+     *
+     * @param from The inclusive upper bound
+     * @return The card or -1 if there is no such card
+     */
+    public int previous(int from) {
+        return previous(low, high, from);
+    }
+
+    static int previous(long low, long high, int from) {
+        long highBits = high & ~aboveHigh(from);
+        if (highBits != 0)
+            return 2 * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(highBits);
+        long lowBits = low & ~aboveLow(from);
+        if (lowBits != 0)
+            return BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(lowBits);
+        return -1;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public CardMask copy() {
+        return new CardMask(low, high);
+    }
+
+    /**
+     * Mask of all bits of the low word that belong to cards strictly greater than value.
+     */
+    static long aboveLow(int value) {
+        if (value < 0)
+            return -1L;
+        if (value >= BITS_PER_WORD - 1)
+            return 0L;
+        return -1L << (value + 1);
+    }
+
+    /**
+     * Mask of all bits of the high word that belong to cards strictly greater than value.
+     */
+    static long aboveHigh(int value) {
+        return aboveLow(value - BITS_PER_WORD);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CardMask cardMask = (CardMask) o;
+
+        return low == cardMask.low && high == cardMask.high;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(low) + Long.hashCode(high);
+    }
+}
@@ -0,0 +1,90 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class CardMaskTest {
+
+    private static final int CAPACITY = 128;
+
+    @Test
+    public void testQueriesAtWordEdges() {
+        var edges = new int[]{0, 1, 62, 63, 64, 65, 126, 127};
+        // Every mask of up to two edge cards, including both ends of both words
+        for (int first : edges) {
+            for (int second : edges) {
+                var mask = new CardMask();
+                mask.add(first);
+                mask.add(second);
+                assertMatchesLoop(mask);
+            }
+        }
+        assertMatchesLoop(new CardMask());
+        assertMatchesLoop(new CardMask(-1L, -1L));
+    }
+
+    @Test
+    public void testQueriesOfRandomMasks() {
+        var random = new SplittableRandom(2L);
+        for (int i = 0; i < 200; i++) {
+            assertMatchesLoop(new CardMask(random.nextLong() & random.nextLong(), random.nextLong() & random.nextLong()));
+        }
+    }
+
+    @Test
+    public void testEmptyMaskAndFirstCardOfHighWord() {
+        var mask = new CardMask();
+        assertEquals(-1, mask.next(0));
+        assertEquals(-1, mask.previous(127));
+        assertEquals(0, mask.countAbove(-1));
+        assertEquals(0, mask.countBelow(128));
+        assertFalse(mask.anyAbove(-1));
+        assertFalse(mask.anyBelow(128));
+
+        mask.add(64);
+        assertEquals(64, mask.next(0));
+        assertEquals(64, mask.next(64));
+        assertEquals(-1, mask.next(65));
+        assertEquals(64, mask.previous(127));
+        assertEquals(-1, mask.previous(63));
+        assertEquals(1, mask.countAbove(63));
+        assertEquals(0, mask.countAbove(64));
+        assertEquals(1, mask.countBelow(65));
+        assertEquals(0, mask.countBelow(64));
+    }
+
+    /**
+     * Compares every query for all values just outside and inside the range of cards with counting in a loop.
+     */
+    private static void assertMatchesLoop(CardMask mask) {
+        for (int value = -2; value <= CAPACITY + 1; value++) {
+            int above = 0;
+            int below = 0;
+            int next = -1;
+            int previous = -1;
+            for (int card = 0; card < CAPACITY; card++) {
+                if (!mask.contains(card))
+                    continue;
+                if (card > value)
+                    above++;
+                if (card < value)
+                    below++;
+                if (card >= value && next == -1)
+                    next = card;
+                if (card <= value)
+                    previous = card;
+            }
+
+            String context = "value " + value + " in " + Long.toHexString(mask.getHigh()) + ":" + Long.toHexString(mask.getLow());
+            assertEquals(context, above, mask.countAbove(value));
+            assertEquals(context, below, mask.countBelow(value));
+            assertEquals(context, above > 0, mask.anyAbove(value));
+            assertEquals(context, below > 0, mask.anyBelow(value));
+            assertEquals(context, next, mask.next(value));
+            assertEquals(context, previous, mask.previous(value));
+        }
+    }
+}
@@ -2,15 +2,19 @@ package core;
 
 import core.exceptions.InvalidActionException;
 
-import java.util.Stack;
-
 /**
- * Represents a stack of cards in the game
+ * Represents a stack of cards in the game. Only the top card affects the rules, so the stack
+ * just stores the value of its top card. The cards below can optionally be recorded in a packed history.
  */
 public class CardStack {
 
+    private static final int BACKWARDS_DISTANCE = 10;
+    private static final int MAX_HISTORY = 98;
+
     private final Direction direction;
-    private final Stack<Card> cards;
+    private final byte[] history;
+    private int historySize;
+    private int top;
 
     /**
      * Initializes the card stack with the given direction
@@ -18,20 +22,42 @@ public class CardStack {
      * @param direction The direction to which the value of the cards should be going.
      */
     public CardStack(Direction direction) {
+        this(direction, false);
+    }
+
+    /**
+     * Initializes the card stack with the given direction
+     *
+     * @param direction   The direction to which the value of the cards should be going.
+     * @param keepHistory Whether the cards below the top should be recorded.
+     */
+    public CardStack(Direction direction, boolean keepHistory) {
         this.direction = direction;
-        this.cards = new Stack();
+        this.history = keepHistory ? new byte[MAX_HISTORY] : null;
 
         switch (direction) {
             case UP:
-                cards.push(new Card(1));
+                top = 1;
                 break;
             case DOWN:
-                cards.push(new Card(99));
+                top = 99;
                 break;
         }
     }
 
 
+    /**
+     * Initializes a card stack that already has the given top card, e.g. to show a snapshot of a game.
+     *
+     * @param direction The direction to which the value of the cards should be going.
+     * @param top       The value of the top card
+     */
+    public CardStack(Direction direction, int top) {
+        this(direction, false);
+        this.top = top;
+    }
+
+
     /**
      * Pushes a card onto the cardStack. The card must either be lower/greater depending on the direction(DOWN, UP).
      * If it goes into the opposite direction the distance needs to be exactly 10.
@@ -39,23 +65,84 @@ public class CardStack {
      * @param card The card that should be pushed to the stack
      */
     public void push(Card card) throws InvalidActionException {
-        if (direction == Direction.UP && cards.peek().getValue() - card.getValue() > 0) {
-            if (Math.abs(cards.peek().getValue() - card.getValue()) == 10) {
-                cards.push(card);
-            } else {
-                throw new InvalidActionException("Can't add card, distance needs to be exactly 10");
-            }
-        }
+        int result = tryPush(card.getValue());
+        if (result != PlayResult.OK)
+            throw new InvalidActionException(PlayResult.message(result));
+    }
 
-        if (direction == Direction.DOWN && cards.peek().getValue() - card.getValue() < 0) {
-            if (Math.abs(cards.peek().getValue() - card.getValue()) == 10) {
-                cards.push(card);
-            } else {
-                throw new InvalidActionException("Can't add card, distance needs to be exactly 10");
-            }
-        }
+    /**
+     * Pushes a card onto the cardStack if the move is legal, without throwing.
+     *
+     * @param card The value of the card
+     * @return {@link PlayResult#OK} or {@link PlayResult#WRONG_DIRECTION}, the stack is only changed on OK
+     */
+    public int tryPush(int card) {
+        if (!canPush(card))
+            return PlayResult.WRONG_DIRECTION;
+
+        if (history != null)
+            history[historySize++] = (byte) top;
+        top = card;
+        return PlayResult.OK;
+    }
+
+    /**
+     * Takes back the last push.
+     *
+     * @param previousTop The value of the top card before the push
+     */
+    public void undoPush(int previousTop) {
+        if (history != null)
+            historySize--;
+        top = previousTop;
+    }
 
-        cards.push(card);
+    /**
+     * Checks whether the card could be pushed onto this stack.
+     *
+     * @param card The value of the card
+     * @return true if the card goes into the direction of the stack or back by exactly 10
+     */
+    public boolean canPush(int card) {
+        return canPush(direction, top, card);
+    }
+
+    /**
+     * Checks whether a card could be pushed onto a stack with the given direction and top card.
+     *
+     * @param direction The direction of the stack
+     * @param top       The value of the top card
+     * @param card      The value of the card
+     * @return true if the card goes into the direction of the stack or back by exactly 10
+     */
+    public static boolean canPush(Direction direction, int top, int card) {
+        if (direction == Direction.UP)
+            return card > top || top - card == BACKWARDS_DISTANCE;
+        return card < top || card - top == BACKWARDS_DISTANCE;
+    }
+
+    /**
+     * Checks whether any card of the mask could be pushed onto this stack.
+     *
+     * @param cards The cards to check
+     * @return true if at least one card could be pushed
+     */
+    public boolean hasPlayableCard(CardMask cards) {
+        if (direction == Direction.UP)
+            return cards.anyAbove(top) || cards.contains(top - BACKWARDS_DISTANCE);
+        return cards.anyBelow(top) || cards.contains(top + BACKWARDS_DISTANCE);
+    }
+
+    /**
+     * Counts the cards of the mask that could be pushed onto this stack.
+     *
+     * @param cards The cards to count
+     * @return The amount of cards that could be pushed
+     */
+    public int countPlayable(CardMask cards) {
+        if (direction == Direction.UP)
+            return cards.countAbove(top) + (cards.contains(top - BACKWARDS_DISTANCE) ? 1 : 0);
+        return cards.countBelow(top) + (cards.contains(top + BACKWARDS_DISTANCE) ? 1 : 0);
     }
 
     /**
@@ -65,7 +152,18 @@ public class CardStack {
      * @return The distance of the top card.
      */
     public Integer getDistanceToTop(Card card) {
-        return Math.abs(this.cards.peek().getValue() - card.getValue());
+        return distance(top, card.getValue());
+    }
+
+    /**
+     * Calculates the distance between a top card and another card.
+     *
+     * @param top  The value of the top card
+     * @param card The value of the other card
+     * @return The distance of the two values
+     */
+    public static int distance(int top, int card) {
+        return Math.abs(top - card);
     }
 
     /**
@@ -74,6 +172,35 @@ public class CardStack {
      * @return The top of the card stack
      */
     public Card peekTop() {
-        return this.cards.peek();
+        return Card.of(top);
+    }
+
+    public int getTopValue() {
+        return top;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the amount of cards recorded below the top card. This is always 0 if no history is kept.
+     *
+     * @return The size of the history
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * Returns a card of the history, the oldest card has index 0.
+     *
+     * @param index The index in the history
+     * @return The value of the card
+     */
+    public int getHistoryCard(int index) {
+        if (index < 0 || index >= historySize)
+            throw new IndexOutOfBoundsException(index);
+        return history[index];
     }
 }
@@ -0,0 +1,58 @@
+package core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Produces seeds for reproducible deals. A stream is not thread safe, but it can be split into independent
+ * streams, one for each thread, so parallel simulations never contend on a shared random number generator.
+ * <p>
+ * For simulations whose work is distributed dynamically, {@link #seedFor(long, long)} derives the seed of a
+ * game from a master seed and the number of the game, so the n-th game always gets the same deal no matter
+ * which thread plays it.
+ */
+public class DealStream {
+
+    private final SplittableRandom random;
+
+    public DealStream(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private DealStream(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Creates a new stream that shares no state with this one, e.g. to hand it to another thread.
+     *
+     * @return The new stream
+     */
+    public DealStream split() {
+        return new DealStream(random.split());
+    }
+
+    public long nextSeed() {
+        return random.nextLong();
+    }
+
+    public Deck nextDeck() {
+        return new Deck(nextSeed());
+    }
+
+    /**
+     * Derives the seed of a single game of a simulation.
+     *
+     * @param masterSeed The seed of the whole simulation
+     * @param game       The number of the game
+     * @return The seed for the deck of that game
+     */
+    public static long seedFor(long masterSeed, long game) {
+        return mix(masterSeed + mix(game + 0x9e3779b97f4a7c15L));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
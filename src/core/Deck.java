@@ -1,60 +1,113 @@
 package core;
 
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
- * Represents a deck of cards for the game
+ * Represents a deck of cards for the game. The order of the cards is fully determined by a 64 bit seed,
+ * so every deal can be replayed from its seed.
  */
 public class Deck {
 
-    private final Card[] cards;
+    private final byte[] cards;
+    private final long seed;
     private int index = 0;
 
+    /**
+     * Creates a deck with a random seed.
+     */
     public Deck() {
-        cards = new Card[97];
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a deck whose order is determined by the given seed.
+     *
+     * @param seed The seed of the shuffle
+     */
+    public Deck(long seed) {
+        this.seed = seed;
+        cards = new byte[97];
         init();
     }
 
 
     private void init() {
-
-        for (int i = 2; i < 99; i++) {
-            cards[i - 2] = new Card(i);
-        }
-
-        shuffleDeck(180);
+        shuffle(seed, cards, 0);
     }
 
     /**
-     * Shuffle the deck for the amount of rounds given
-     * @param rounds The amount of shuffle operations
+     * Writes the order of the deck with the given seed into an array, e.g. to store many decks in one array.
+     * The whole deck is shuffled with the Fisher-Yates algorithm, so every order is equally likely.
+     *
+     * @param seed   The seed of the shuffle
+     * @param target The array the 97 cards are written to
+     * @param offset The position of the first card in the array
      */
-    private void shuffleDeck(int rounds) {
-        Random rand = new Random();
-        for(int i = 0 ; i < rounds; i++){
-            int x = rand.nextInt(96);
-            int y = rand.nextInt(96);
-
-            swap(x, y);
+    public static void shuffle(long seed, byte[] target, int offset) {
+        for (int i = 2; i < 99; i++) {
+            target[offset + i - 2] = (byte) i;
         }
-    }
 
-    private void swap(int i, int j){
-        var tmp = cards[i];
-        cards[i] = cards[j];
-        cards[j] = tmp;
+        var random = new SplittableRandom(seed);
+        for (int i = 96; i > 0; i--) {
+            int j = offset + random.nextInt(i + 1);
+            var tmp = target[offset + i];
+            target[offset + i] = target[j];
+            target[j] = tmp;
+        }
     }
 
     public Optional<Card> draw() {
         if (index < 97) {
-            return Optional.of(cards[index++]);
+            return Optional.of(Card.of(cards[index++]));
         } else {
             return Optional.empty();
         }
     }
 
+    /**
+     * Puts the last drawn card back on top of the deck.
+     *
+     * @return The card put back
+     */
+    public Card undraw() {
+        if (index == 0)
+            throw new IllegalStateException("No card was drawn yet");
+        return Card.of(cards[--index]);
+    }
+
+    /**
+     * Returns a card that has not been drawn yet without drawing it.
+     *
+     * @param offset The position relative to the next card, 0 is the card that would be drawn next
+     * @return The value of the card
+     */
+    public int cardAt(int offset) {
+        return cards[index + offset];
+    }
+
+    /**
+     * Draws and discards cards, e.g. to restore a deck from its seed and the amount of drawn cards.
+     *
+     * @param amount The amount of cards to skip
+     */
+    public void skip(int amount) {
+        if (amount < 0 || index + amount > 97)
+            throw new IllegalArgumentException("Can't skip " + amount + " cards");
+        index += amount;
+    }
+
     public Integer remaining() {
         return 97 - index;
     }
+
+    /**
+     * Returns the seed this deck was shuffled with.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
 }
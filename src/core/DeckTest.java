@@ -0,0 +1,47 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class DeckTest {
+
+    @Test
+    public void testSameSeedSameOrder() {
+        var first = new Deck(42L);
+        var second = new Deck(42L);
+
+        while (first.remaining() > 0) {
+            assertEquals(first.draw().get(), second.draw().get());
+        }
+        assertFalse(second.draw().isPresent());
+    }
+
+    @Test
+    public void testDeckContainsEveryCardOnce() {
+        var deck = new Deck(7L);
+        var values = new HashSet<Integer>();
+
+        while (deck.remaining() > 0) {
+            values.add(deck.draw().get().getValue());
+        }
+
+        assertEquals(97, values.size());
+        for (int i = 2; i < 99; i++) {
+            assertTrue(values.contains(i));
+        }
+    }
+
+    @Test
+    public void testDealStreamIsReproducible() {
+        var first = new DealStream(3L);
+        var second = new DealStream(3L);
+
+        assertEquals(first.nextSeed(), second.nextSeed());
+        assertEquals(first.split().nextSeed(), second.split().nextSeed());
+        assertEquals(DealStream.seedFor(1L, 5L), DealStream.seedFor(1L, 5L));
+        assertNotEquals(DealStream.seedFor(1L, 5L), DealStream.seedFor(1L, 6L));
+    }
+}
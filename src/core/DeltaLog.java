@@ -0,0 +1,135 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * A log of the changes made to a game, packed into one int per change, that can be walked backwards
+ * (undo) and forwards again (redo). Recording a new change drops everything that was undone before.
+ * <p>
+ * A play stores the card, the stack and the previous top of the stack. The end of a turn stores how many
+ * cards were drawn and how many cards were played in the turn; the drawn cards themselves are the last
+ * ones taken from the deck, so they do not need to be stored.
+ */
+public final class DeltaLog {
+
+    public static final int PLAY = 0;
+    public static final int TURN_END = 1;
+
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int VALUE_BITS = 7;
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    private static final int STACK_BITS = 3;
+    private static final int STACK_MASK = (1 << STACK_BITS) - 1;
+
+    private int[] entries = new int[INITIAL_CAPACITY];
+    private int size;
+    private int cursor;
+
+    /**
+     * Records a play.
+     *
+     * @param card        The value of the played card
+     * @param stack       The number of the stack (1 - 4)
+     * @param previousTop The value of the top card before the play
+     */
+    public void recordPlay(int card, int stack, int previousTop) {
+        record(PLAY | card << 1 | stack << (1 + VALUE_BITS) | previousTop << (1 + VALUE_BITS + STACK_BITS));
+    }
+
+    /**
+     * Records the end of a turn.
+     *
+     * @param drawn       The amount of cards drawn at the end of the turn
+     * @param cardsPlayed The amount of cards played in the turn
+     */
+    public void recordTurnEnd(int drawn, int cardsPlayed) {
+        record(TURN_END | drawn << 1 | cardsPlayed << (1 + VALUE_BITS));
+    }
+
+    private void record(int entry) {
+        if (cursor == entries.length)
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        entries[cursor++] = entry;
+        size = cursor;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < size;
+    }
+
+    /**
+     * Steps back over the last change.
+     *
+     * @return The entry of the change to revert
+     */
+    public int undo() {
+        if (!canUndo())
+            throw new IllegalStateException("Nothing to undo");
+        return entries[--cursor];
+    }
+
+    /**
+     * Steps forward over the last undone change.
+     *
+     * @return The entry of the change to apply again
+     */
+    public int redo() {
+        if (!canRedo())
+            throw new IllegalStateException("Nothing to redo");
+        return entries[cursor++];
+    }
+
+    /**
+     * Returns the amount of changes that are currently applied, i.e. not undone.
+     *
+     * @return The amount of applied changes
+     */
+    public int size() {
+        return cursor;
+    }
+
+    /**
+     * Returns an applied change, the oldest change has index 0.
+     *
+     * @param index The index of the change
+     * @return The packed entry
+     */
+    public int get(int index) {
+        if (index >= cursor)
+            throw new IndexOutOfBoundsException(index);
+        return entries[index];
+    }
+
+    public void clear() {
+        size = 0;
+        cursor = 0;
+    }
+
+    public static int type(int entry) {
+        return entry & 1;
+    }
+
+    public static int card(int entry) {
+        return (entry >>> 1) & VALUE_MASK;
+    }
+
+    public static int stack(int entry) {
+        return (entry >>> (1 + VALUE_BITS)) & STACK_MASK;
+    }
+
+    public static int previousTop(int entry) {
+        return (entry >>> (1 + VALUE_BITS + STACK_BITS)) & VALUE_MASK;
+    }
+
+    public static int drawn(int entry) {
+        return (entry >>> 1) & VALUE_MASK;
+    }
+
+    public static int cardsPlayed(int entry) {
+        return (entry >>> (1 + VALUE_BITS)) & VALUE_MASK;
+    }
+}
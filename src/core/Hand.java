@@ -1,16 +1,15 @@
 package core;
 
 import java.util.*;
-import java.util.function.BiFunction;
-import java.util.function.Predicate;
 
 /**
  * Implementation of a The game hand.
- * This hand can only draw and show its contents
+ * This hand can only draw and show its contents. The cards are stored as a bit mask,
+ * so copying the hand and checking for possible moves only takes a few bit operations.
  */
 public class Hand {
 
-    private final Set<Card> handCards;
+    private final CardMask handCards;
     private final int maxSize;
 
     /**
@@ -20,10 +19,16 @@ public class Hand {
      */
     public Hand(int maxSize) {
         this.maxSize = maxSize;
-        this.handCards = new HashSet<>();
+        this.handCards = new CardMask();
     }
 
-    private Hand(int maxSize, Set<Card> handCards) {
+    /**
+     * Initializes the hand with the given maxSize and cards.
+     *
+     * @param maxSize   The maximum amount of cards of the hand
+     * @param handCards The cards of the hand, the mask is owned by the hand afterwards
+     */
+    public Hand(int maxSize, CardMask handCards) {
         this.maxSize = maxSize;
         this.handCards = handCards;
     }
@@ -38,7 +43,7 @@ public class Hand {
         while (handCards.size() < maxSize) {
             Optional<Card> card;
             if ((card = deck.draw()).isPresent()) {
-                handCards.add(card.get());
+                handCards.add(card.get().getValue());
             } else {
                 break;
             }
@@ -46,7 +51,20 @@ public class Hand {
     }
 
     public Set<Card> getHandCards() {
-        return new HashSet<>(handCards);
+        var cards = new HashSet<Card>();
+        for (int card = handCards.next(0); card != -1; card = handCards.next(card + 1)) {
+            cards.add(Card.of(card));
+        }
+        return cards;
+    }
+
+    /**
+     * Puts a card back into the hand, e.g. when a move is taken back.
+     *
+     * @param card The card to add
+     */
+    public void addHandCard(Card card) {
+        handCards.add(card.getValue());
     }
 
     /**
@@ -55,7 +73,7 @@ public class Hand {
      * @param toRemove The card to be removed from this hand
      */
     public void removeHandCard(Card toRemove) {
-        handCards.remove(toRemove);
+        handCards.remove(toRemove.getValue());
     }
 
     /**
@@ -70,31 +88,66 @@ public class Hand {
     /**
      * Returns a new copy for the same hand.
      *
-     * @return A shallow copy of the hand.
+     * @return A copy of the hand, which only copies the two words of the mask.
      */
     public Hand copyHand() {
-        return new Hand(this.maxSize, new HashSet<>(this.handCards));
+        return new Hand(this.maxSize, handCards.copy());
     }
 
     public boolean contains(Card card) {
-        return this.handCards.contains(card);
+        return this.handCards.contains(card.getValue());
     }
 
+    /**
+     * Checks whether any card of the hand can be put on any of the stacks, including
+     * moves that go back by exactly 10.
+     *
+     * @param upStacks   The stacks going up
+     * @param downStacks The stacks going down
+     * @return true if there is at least one possible move
+     */
     public boolean canMakeMove(List<CardStack> upStacks, List<CardStack> downStacks) {
-        return checkStack((handCard, deckCard) -> handCard.getValue() > deckCard.getValue(), upStacks)
-                || checkStack((handCard, deckCard) -> handCard.getValue() < deckCard.getValue(), downStacks);
+        for (var cardStack : upStacks) {
+            if (cardStack.hasPlayableCard(handCards))
+                return true;
+        }
+        for (var cardStack : downStacks) {
+            if (cardStack.hasPlayableCard(handCards))
+                return true;
+        }
+        return false;
     }
 
-    private boolean checkStack(BiFunction<Card, Card, Boolean> comparison, List<CardStack> cardStacks) {
-
-        for (var cardStack : cardStacks) {
-            for (var card : handCards) {
-                if (comparison.apply(card, cardStack.peekTop())) {
-                    return true;
-                }
+    /**
+     * Appends every card of the hand that can be pushed onto the given stack to the buffer.
+     *
+     * @param cardStack   The stack the cards should be pushed on
+     * @param stackNumber The number of the stack (1 - 4) used to encode the moves
+     * @param buffer      The buffer the moves are written to
+     */
+    public void addLegalMoves(CardStack cardStack, int stackNumber, MoveBuffer buffer) {
+        int top = cardStack.getTopValue();
+        if (cardStack.getDirection() == Direction.UP) {
+            for (int card = handCards.next(top + 1); card != -1; card = handCards.next(card + 1)) {
+                buffer.add(Move.play(card, stackNumber));
+            }
+        } else {
+            for (int card = handCards.previous(top - 1); card != -1; card = handCards.previous(card - 1)) {
+                buffer.add(Move.play(card, stackNumber));
             }
         }
 
-        return false;
+        int backwards = cardStack.getDirection() == Direction.UP ? top - 10 : top + 10;
+        if (handCards.contains(backwards))
+            buffer.add(Move.play(backwards, stackNumber));
+    }
+
+    /**
+     * Provides the bit mask of the hand cards. The mask must not be modified by the caller.
+     *
+     * @return The hand cards as bit mask
+     */
+    public CardMask getCardMask() {
+        return handCards;
     }
 }
@@ -0,0 +1,36 @@
+package core;
+
+/**
+ * Encodes moves as plain ints so they can be generated and stored without allocating objects.
+ * A play move stores the card value in the upper bits and the target stack (1 - 4) in the lowest two bits.
+ * The value 0 is never a valid play and stands for ending the turn.
+ */
+public final class Move {
+
+    public static final int STOP = 0;
+
+    /**
+     * All encoded moves are lower than this value, so it can be used as size of lookup tables.
+     */
+    public static final int TABLE_SIZE = 100 << 2;
+
+    private Move() {
+        // Is just a namespace for the encoding functions
+    }
+
+    public static int play(int card, int stack) {
+        return card << 2 | (stack - 1);
+    }
+
+    public static int card(int move) {
+        return move >>> 2;
+    }
+
+    public static int stack(int move) {
+        return (move & 3) + 1;
+    }
+
+    public static boolean isStop(int move) {
+        return move == STOP;
+    }
+}
@@ -0,0 +1,67 @@
+package core;
+
+/**
+ * A reusable buffer for moves encoded by {@link Move}. Callers keep one buffer around and let the
+ * move generation overwrite it, so enumerating the legal moves does not allocate.
+ */
+public final class MoveBuffer {
+
+    /**
+     * Every card of the game on every stack plus the stop move.
+     */
+    public static final int MAX_MOVES = 97 * 4 + 1;
+
+    private final int[] moves = new int[MAX_MOVES];
+    private int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return moves[index];
+    }
+
+    /**
+     * Replaces a move, e.g. to reorder the buffer.
+     *
+     * @param index The index of the move to replace
+     * @param move  The new move
+     */
+    public void set(int index, int move) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        moves[index] = move;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether ending the turn is one of the moves in the buffer.
+     *
+     * @return true if the stop move is contained
+     */
+    public boolean canStop() {
+        return contains(Move.STOP);
+    }
+}
@@ -0,0 +1,81 @@
+package core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoveBufferTest {
+
+    @Test
+    public void testAddAndClear() {
+        var moves = new MoveBuffer();
+        assertTrue(moves.isEmpty());
+        assertFalse(moves.canStop());
+
+        moves.add(Move.play(12, 1));
+        moves.add(Move.play(90, 4));
+        assertEquals(2, moves.size());
+        assertEquals(Move.play(12, 1), moves.get(0));
+        assertTrue(moves.contains(Move.play(90, 4)));
+        assertFalse(moves.contains(Move.play(90, 3)));
+        assertFalse(moves.canStop());
+
+        moves.add(Move.STOP);
+        assertTrue(moves.canStop());
+
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertFalse(moves.contains(Move.play(12, 1)));
+    }
+
+    @Test
+    public void testSetReplacesAMove() {
+        var moves = new MoveBuffer();
+        moves.add(Move.play(12, 1));
+        moves.add(Move.play(90, 4));
+        moves.set(1, Move.STOP);
+        assertEquals(Move.play(12, 1), moves.get(0));
+        assertTrue(moves.canStop());
+
+        moves.clear();
+        try {
+            moves.set(0, Move.STOP);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // The buffer does not grow by replacing
+        }
+    }
+
+    @Test
+    public void testOnlyMovesInTheBufferCanBeRead() {
+        var moves = new MoveBuffer();
+        moves.add(Move.STOP);
+        moves.clear();
+        try {
+            moves.get(0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // The cleared move is not read
+        }
+    }
+
+    @Test
+    public void testHoldsEveryMoveOfTheGame() {
+        var moves = new MoveBuffer();
+        for (int card = 2; card <= 98; card++) {
+            for (int stack = 1; stack <= 4; stack++) {
+                moves.add(Move.play(card, stack));
+            }
+        }
+        moves.add(Move.STOP);
+        assertEquals(MoveBuffer.MAX_MOVES, moves.size());
+        assertEquals(Move.play(98, 4), moves.get(MoveBuffer.MAX_MOVES - 2));
+    }
+
+    @Test
+    public void testCardsAreInterned() {
+        assertSame(Card.of(5), Card.of(5));
+        assertSame(Card.of(98), Card.of(98));
+        assertEquals(Card.of(42), new Card(42));
+    }
+}
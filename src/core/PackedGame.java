@@ -0,0 +1,374 @@
+package core;
+
+/**
+ * A compact, mutable copy of a single player game used by searches and simulations.
+ * The hand is a {@link CardMask}, the four stack tops are packed into a single int and the
+ * remaining deck is a byte array that is shared between copies, since it is never modified.
+ * Every move can be taken back again, so searches can walk the game tree without copying.
+ * <p>
+ * Stacks are numbered like in the GameController: 1 and 2 go up, 3 and 4 go down.
+ */
+public final class PackedGame {
+
+    public static final int HAND_SIZE = 8;
+    public static final int STACKS = 4;
+    public static final int MINIMUM_CARDS_PER_TURN = 2;
+
+    private static final int BITS_PER_TOP = 8;
+    private static final int TOP_MASK = 0xFF;
+
+    private final CardMask hand;
+    private final CardMask undrawn;
+    private final byte[] deck;
+    private int deckIndex;
+    private int tops;
+    private int cardsPlayed;
+    // The Zobrist hash of the hand and the stack tops
+    private long hash;
+
+    /**
+     * Creates a new packed game.
+     *
+     * @param hand        The cards in the hand, the mask is owned by this game afterwards
+     * @param tops        The values of the top cards of the stacks 1 - 4
+     * @param deck        The cards remaining in the deck, the card drawn next comes first
+     * @param cardsPlayed The amount of cards played in the current turn
+     */
+    public PackedGame(CardMask hand, int[] tops, byte[] deck, int cardsPlayed) {
+        this.hand = hand;
+        this.undrawn = new CardMask();
+        this.deck = deck;
+        this.cardsPlayed = cardsPlayed;
+        for (byte card : deck) {
+            undrawn.add(card);
+        }
+        this.tops = packTops(tops);
+        this.hash = Zobrist.hash(hand, tops, false);
+    }
+
+    private PackedGame(PackedGame other, byte[] deck) {
+        this.hand = other.hand.copy();
+        this.undrawn = other.undrawn.copy();
+        this.deck = deck;
+        this.deckIndex = other.deckIndex;
+        this.tops = other.tops;
+        this.cardsPlayed = other.cardsPlayed;
+        this.hash = other.hash;
+    }
+
+    public PackedGame copy() {
+        return new PackedGame(this, deck);
+    }
+
+    /**
+     * Creates a copy of this game that draws its remaining cards in a different order.
+     *
+     * @param remainingDeck The cards that are not drawn yet, the card drawn next comes first
+     * @return The copy
+     */
+    public PackedGame withRemainingDeck(byte[] remainingDeck) {
+        var copy = new PackedGame(this, remainingDeck);
+        copy.deckIndex = 0;
+        return copy;
+    }
+
+    /**
+     * Overwrites the position of this game with the one of another game that was created from the same
+     * remaining cards, e.g. by {@link #withRemainingDeck(byte[])}. The order of this game's deck is kept.
+     *
+     * @param other The game to copy the position from
+     */
+    public void copyPositionFrom(PackedGame other) {
+        hand.set(other.hand);
+        undrawn.set(other.undrawn);
+        deckIndex = other.deckIndex;
+        tops = other.tops;
+        cardsPlayed = other.cardsPlayed;
+        hash = other.hash;
+    }
+
+    public static Direction direction(int stack) {
+        return stack <= 2 ? Direction.UP : Direction.DOWN;
+    }
+
+    public int top(int stack) {
+        return top(tops, stack);
+    }
+
+    /**
+     * Packs the values of the top cards into one int, 8 bits per stack starting with stack 1 in the lowest bits.
+     *
+     * @param tops The values of the top cards of the stacks 1 - 4
+     * @return The packed tops
+     */
+    public static int packTops(int[] tops) {
+        int packed = 0;
+        for (int i = 0; i < STACKS; i++) {
+            packed |= tops[i] << (BITS_PER_TOP * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Reads the value of the top card of a stack from packed tops.
+     *
+     * @param packedTops The tops packed by {@link #packTops(int[])}
+     * @param stack      The number of the stack (1 - 4)
+     * @return The value of the top card
+     */
+    public static int top(int packedTops, int stack) {
+        return (packedTops >>> (BITS_PER_TOP * (stack - 1))) & TOP_MASK;
+    }
+
+    /**
+     * Replaces the value of the top card of a stack in packed tops.
+     *
+     * @param packedTops The tops packed by {@link #packTops(int[])}
+     * @param stack      The number of the stack (1 - 4)
+     * @param value      The new value of the top card
+     * @return The packed tops with the new top
+     */
+    public static int withTop(int packedTops, int stack, int value) {
+        int shift = BITS_PER_TOP * (stack - 1);
+        return (packedTops & ~(TOP_MASK << shift)) | (value << shift);
+    }
+
+    /**
+     * Returns all four stack tops packed into one int, 8 bits per stack starting with stack 1 in the lowest bits.
+     *
+     * @return The packed tops
+     */
+    public int packedTops() {
+        return tops;
+    }
+
+    private void setTop(int stack, int value) {
+        tops = withTop(tops, stack, value);
+    }
+
+    /**
+     * Returns the Zobrist hash of the position. It is kept up to date by every move, so this takes constant time.
+     * Swapping the tops of two stacks with the same direction does not change the hash.
+     * The order of the deck is not part of the hash, so hashes are only comparable within one deal.
+     *
+     * @return The hash
+     */
+    public long positionHash() {
+        return hash + Zobrist.turn(deckRemaining(), cardsPlayed);
+    }
+
+    public CardMask hand() {
+        return hand;
+    }
+
+    public int cardsPlayed() {
+        return cardsPlayed;
+    }
+
+    public int deckRemaining() {
+        return deck.length - deckIndex;
+    }
+
+    /**
+     * Returns the position of the next card to draw in the deck array. It only changes when a turn ends.
+     *
+     * @return The deck index
+     */
+    public int deckIndex() {
+        return deckIndex;
+    }
+
+    /**
+     * Returns a card that has not been drawn yet.
+     *
+     * @param offset The position relative to the next card, 0 is the card that would be drawn next
+     * @return The value of the card
+     */
+    public int deckCard(int offset) {
+        return deck[deckIndex + offset];
+    }
+
+    public int cardsLeft() {
+        return hand.size() + deckRemaining();
+    }
+
+    public boolean canPlay(int card, int stack) {
+        return hand.contains(card) && CardStack.canPush(direction(stack), top(stack), card);
+    }
+
+    public boolean hasPlayableCard(int stack) {
+        int top = top(stack);
+        if (direction(stack) == Direction.UP)
+            return hand.anyAbove(top) || hand.contains(top - 10);
+        return hand.anyBelow(top) || hand.contains(top + 10);
+    }
+
+    public boolean canMakeMove() {
+        return hasPlayableCard(1) || hasPlayableCard(2) || hasPlayableCard(3) || hasPlayableCard(4);
+    }
+
+    public boolean isWon() {
+        return hand.isEmpty() && deckRemaining() == 0;
+    }
+
+    /**
+     * A game is lost if it is not won and the player can neither play another card nor end the turn.
+     *
+     * @return true if the game is lost
+     */
+    public boolean isLost() {
+        return !isWon() && cardsPlayed < MINIMUM_CARDS_PER_TURN && !canMakeMove();
+    }
+
+    /**
+     * Checks whether some card that is not played yet can never be played again. This happens if the card is
+     * below every card the up stacks can still get back to and above every card the down stacks can still get
+     * back to. Going back is only possible by exactly 10, so this is answered with a few mask operations.
+     * The check ignores that cards can only be played once, so a game with a dead card is always lost,
+     * while a game without one might still be lost.
+     *
+     * @return true if the game can not be won anymore
+     */
+    public boolean hasDeadCard() {
+        // The masks are combined as raw words, this is checked at every node of a search
+        long unplayedLow = hand.getLow() | undrawn.getLow();
+        long unplayedHigh = hand.getHigh() | undrawn.getHigh();
+        // Bit i is set if both card i and card i + 10 are not played yet
+        long pairsLow = unplayedLow & (unplayedLow >>> 10 | unplayedHigh << 54);
+        long pairsHigh = unplayedHigh & unplayedHigh >>> 10;
+
+        int lowestUp = Math.min(lowestReachableTop(top(1), unplayedLow, unplayedHigh, pairsLow, pairsHigh),
+                lowestReachableTop(top(2), unplayedLow, unplayedHigh, pairsLow, pairsHigh));
+        int highestDown = Math.max(highestReachableTop(top(3), unplayedLow, unplayedHigh, pairsLow, pairsHigh),
+                highestReachableTop(top(4), unplayedLow, unplayedHigh, pairsLow, pairsHigh));
+        int dead = CardMask.next(unplayedLow, unplayedHigh, highestDown + 1);
+        return dead != -1 && dead < lowestUp;
+    }
+
+    private static int lowestReachableTop(int top, long unplayedLow, long unplayedHigh, long pairsLow, long pairsHigh) {
+        while (true) {
+            if (CardMask.contains(unplayedLow, unplayedHigh, top - 10)) {
+                top -= 10;
+                continue;
+            }
+            // Play a higher card first and then go back by 10 from there
+            int lower = CardMask.next(pairsLow, pairsHigh, top - 9);
+            if (lower == -1 || lower >= top)
+                return top;
+            top = lower;
+        }
+    }
+
+    private static int highestReachableTop(int top, long unplayedLow, long unplayedHigh, long pairsLow, long pairsHigh) {
+        while (true) {
+            if (CardMask.contains(unplayedLow, unplayedHigh, top + 10)) {
+                top += 10;
+                continue;
+            }
+            // Play a lower card first and then go back by 10 from there
+            int lower = CardMask.previous(pairsLow, pairsHigh, top - 1);
+            if (lower == -1 || lower + 10 <= top)
+                return top;
+            top = lower + 10;
+        }
+    }
+
+    /**
+     * Writes all legal moves into the buffer, with the same rules as the GameController.
+     *
+     * @param buffer The buffer the moves are written to
+     * @return The amount of legal moves
+     */
+    public int legalMoves(MoveBuffer buffer) {
+        buffer.clear();
+        for (int stack = 1; stack <= STACKS; stack++) {
+            int top = top(stack);
+            if (direction(stack) == Direction.UP) {
+                for (int card = hand.next(top + 1); card != -1; card = hand.next(card + 1)) {
+                    buffer.add(Move.play(card, stack));
+                }
+                if (hand.contains(top - 10))
+                    buffer.add(Move.play(top - 10, stack));
+            } else {
+                for (int card = hand.previous(top - 1); card != -1; card = hand.previous(card - 1)) {
+                    buffer.add(Move.play(card, stack));
+                }
+                if (hand.contains(top + 10))
+                    buffer.add(Move.play(top + 10, stack));
+            }
+        }
+
+        if (cardsPlayed >= MINIMUM_CARDS_PER_TURN || buffer.isEmpty())
+            buffer.add(Move.STOP);
+
+        return buffer.size();
+    }
+
+    /**
+     * Plays a card. The move must be legal.
+     *
+     * @param move The play move encoded by {@link Move}
+     * @return The previous top of the stack, needed to take the move back
+     */
+    public int play(int move) {
+        int card = Move.card(move);
+        int stack = Move.stack(move);
+        int previousTop = top(stack);
+
+        hand.remove(card);
+        setTop(stack, card);
+        cardsPlayed++;
+        hash += Zobrist.top(stack, card) - Zobrist.top(stack, previousTop) - Zobrist.card(card);
+        return previousTop;
+    }
+
+    /**
+     * Takes back a play move.
+     *
+     * @param move        The move that was played
+     * @param previousTop The value returned by {@link #play(int)}
+     */
+    public void undoPlay(int move, int previousTop) {
+        int card = Move.card(move);
+        int stack = Move.stack(move);
+        hand.add(card);
+        setTop(stack, previousTop);
+        cardsPlayed--;
+        hash += Zobrist.top(stack, previousTop) - Zobrist.top(stack, card) + Zobrist.card(card);
+    }
+
+    /**
+     * Ends the turn and refills the hand from the deck. Whether ending the turn is allowed has to be
+     * checked by the caller.
+     *
+     * @return Information needed to take the turn end back
+     */
+    public int endTurn() {
+        int drawn = 0;
+        while (hand.size() < HAND_SIZE && deckIndex < deck.length) {
+            undrawn.remove(deck[deckIndex]);
+            hash += Zobrist.card(deck[deckIndex]);
+            hand.add(deck[deckIndex++]);
+            drawn++;
+        }
+
+        int undo = drawn << BITS_PER_TOP | cardsPlayed;
+        cardsPlayed = 0;
+        return undo;
+    }
+
+    /**
+     * Takes back the end of a turn.
+     *
+     * @param undo The value returned by {@link #endTurn()}
+     */
+    public void undoEndTurn(int undo) {
+        int drawn = undo >>> BITS_PER_TOP;
+        for (int i = 0; i < drawn; i++) {
+            hand.remove(deck[--deckIndex]);
+            undrawn.add(deck[deckIndex]);
+            hash -= Zobrist.card(deck[deckIndex]);
+        }
+        cardsPlayed = undo & TOP_MASK;
+    }
+}
@@ -0,0 +1,44 @@
+package core;
+
+/**
+ * Result codes of trying to play a card. Plain ints are used, so illegal moves can be reported
+ * without creating exceptions, which is what searches and bots do most of the time.
+ */
+public final class PlayResult {
+
+    public static final int OK = 0;
+    /**
+     * The card goes against the direction of the stack and not back by exactly 10.
+     */
+    public static final int WRONG_DIRECTION = 1;
+    public static final int NOT_IN_HAND = 2;
+    /**
+     * There is no stack with the given number.
+     */
+    public static final int BAD_STACK = 3;
+
+    private PlayResult() {
+        // Is just a namespace for the result codes
+    }
+
+    /**
+     * Describes a result code for humans.
+     *
+     * @param result The result code
+     * @return The description
+     */
+    public static String message(int result) {
+        switch (result) {
+            case OK:
+                return "The card was played";
+            case WRONG_DIRECTION:
+                return "Can't add card, distance needs to be exactly 10";
+            case NOT_IN_HAND:
+                return "Your hand does not contain this card";
+            case BAD_STACK:
+                return "No target stack matching the supplied integer";
+            default:
+                throw new IllegalArgumentException("Unknown result: " + result);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package core;
+
+/**
+ * The cards the player has not seen yet, i.e. the cards that are still in the deck. They are kept as a
+ * {@link CardMask}, so counting the unseen cards in a range of values only takes a few popcounts.
+ */
+public final class UnseenCards {
+
+    private final CardMask cards = new CardMask();
+
+    public void add(int card) {
+        cards.add(card);
+    }
+
+    public void remove(int card) {
+        cards.remove(card);
+    }
+
+    public boolean contains(int card) {
+        return cards.contains(card);
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * Counts the unseen cards in a range of values.
+     *
+     * @param from The lowest value, inclusive
+     * @param to   The highest value, inclusive
+     * @return The amount of unseen cards in the range
+     */
+    public int countBetween(int from, int to) {
+        if (from > to)
+            return 0;
+        return cards.countAbove(from - 1) - cards.countAbove(to);
+    }
+
+    /**
+     * Calculates the probability that the next card drawn from the deck lies in a range of values.
+     * Every order of the unseen cards is equally likely.
+     *
+     * @param from The lowest value, inclusive
+     * @param to   The highest value, inclusive
+     * @return The probability, 0 if the deck is empty
+     */
+    public double drawProbability(int from, int to) {
+        int size = cards.size();
+        return size == 0 ? 0 : countBetween(from, to) / (double) size;
+    }
+}
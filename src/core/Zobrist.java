@@ -0,0 +1,120 @@
+package core;
+
+/**
+ * Random keys for hashing positions incrementally. The hash of a position is the sum of the keys of its parts,
+ * so a move only adds and subtracts the keys of the parts it changed.
+ * <p>
+ * Both stacks of a direction share their keys and the keys are added instead of combined with xor, so swapping
+ * the tops of two stacks with the same direction gives the same hash, while equal tops do not cancel out.
+ * A DOWN stack behaves like an UP stack if every value v is replaced by 100 - v. The mirrored hash of a position
+ * is kept with the same keys, and the smaller of both hashes identifies all four symmetric positions.
+ */
+public final class Zobrist {
+
+    private static final int VALUES = 128;
+    private static final int MIRROR = 100;
+    private static final int MINIMUM_CARDS_PER_TURN = 2;
+
+    private static final long[] CARD = new long[VALUES];
+    private static final long[] UP_TOP = new long[VALUES];
+    private static final long[] DOWN_TOP = new long[VALUES];
+    private static final long[] LOCKED_TOP = new long[VALUES];
+    private static final long[] REMAINING = new long[VALUES];
+    private static final long[] PLAYED = new long[MINIMUM_CARDS_PER_TURN + 1];
+    private static final long[] MIN_STACK = new long[PackedGame.STACKS + 1];
+
+    static {
+        long state = 0x5DEECE66DL;
+        for (long[] keys : new long[][]{CARD, UP_TOP, DOWN_TOP, LOCKED_TOP, REMAINING, PLAYED, MIN_STACK}) {
+            for (int i = 0; i < keys.length; i++) {
+                state += 0x9e3779b97f4a7c15L;
+                keys[i] = mix(state);
+            }
+        }
+    }
+
+    private Zobrist() {
+        // Is just a namespace for the keys
+    }
+
+    public static long card(int card) {
+        return CARD[card];
+    }
+
+    public static long mirroredCard(int card) {
+        return CARD[MIRROR - card];
+    }
+
+    /**
+     * Returns the key of a stack top.
+     *
+     * @param stack The number of the stack (1 - 4)
+     * @param top   The value of the top card
+     * @return The key
+     */
+    public static long top(int stack, int top) {
+        return stack <= 2 ? UP_TOP[top] : DOWN_TOP[top];
+    }
+
+    /**
+     * Returns the key of a stack top in the mirrored position, where the stack goes into the other direction.
+     *
+     * @param stack The number of the stack (1 - 4)
+     * @param top   The value of the top card
+     * @return The key
+     */
+    public static long mirroredTop(int stack, int top) {
+        return stack <= 2 ? DOWN_TOP[MIRROR - top] : UP_TOP[MIRROR - top];
+    }
+
+    /**
+     * Returns the key of the parts of a position that are the same in the mirrored position.
+     *
+     * @param deckRemaining The amount of cards left in the deck
+     * @param cardsPlayed   The amount of cards played in the current turn
+     * @return The key
+     */
+    public static long turn(int deckRemaining, int cardsPlayed) {
+        return REMAINING[deckRemaining] + PLAYED[Math.min(cardsPlayed, MINIMUM_CARDS_PER_TURN)];
+    }
+
+    /**
+     * Returns the key for the lowest stack that may still be played on in the current turn.
+     * If only one stack of a direction may be played on, the stacks are no longer interchangeable,
+     * so the top of the locked one is part of the key.
+     *
+     * @param minStack  The lowest stack that may be played on (1 - 4)
+     * @param lockedTop The top of the stack below minStack if it has the same direction, otherwise ignored
+     * @return The key
+     */
+    public static long minStack(int minStack, int lockedTop) {
+        if (minStack == 2 || minStack == 4)
+            return MIN_STACK[minStack] + LOCKED_TOP[lockedTop];
+        return MIN_STACK[minStack];
+    }
+
+    /**
+     * Computes the hash of a hand and the stack tops from scratch. Only the turn key is not included.
+     *
+     * @param hand     The hand cards
+     * @param tops     The tops of the stacks 1 - 4
+     * @param mirrored Whether the hash of the mirrored position should be computed
+     * @return The hash
+     */
+    public static long hash(CardMask hand, int[] tops, boolean mirrored) {
+        long hash = 0;
+        for (int card = hand.next(0); card != -1; card = hand.next(card + 1)) {
+            hash += mirrored ? mirroredCard(card) : card(card);
+        }
+        for (int stack = 1; stack <= PackedGame.STACKS; stack++) {
+            hash += mirrored ? mirroredTop(stack, tops[stack - 1]) : top(stack, tops[stack - 1]);
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
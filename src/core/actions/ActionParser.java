@@ -0,0 +1,127 @@
+package core.actions;
+
+import core.Move;
+
+/**
+ * Parses the action grammar of the text interface ({@code C<card>-<stack>}, {@code S}, {@code U} and {@code R})
+ * one byte at a time, without regular expressions or allocations. Actions are separated by whitespace.
+ * The parser keeps its state between calls, so the input can arrive in arbitrary chunks.
+ */
+public final class ActionParser {
+
+    /**
+     * No action is complete yet.
+     */
+    public static final int NONE = -1;
+    public static final int UNDO = -2;
+    public static final int REDO = -3;
+    public static final int MALFORMED = -4;
+
+    private static final int START = 0;
+    private static final int CARD_START = 1;
+    private static final int CARD = 2;
+    private static final int STACK_START = 3;
+    private static final int STACK = 4;
+    private static final int END = 5;
+    private static final int SKIP = 6;
+
+    private static final int MAX_CARD_DIGITS = 2;
+
+    private int state = START;
+    private int result;
+    private int card;
+    private int digits;
+    private int stack;
+
+    /**
+     * Feeds the next byte of the input.
+     *
+     * @param value The next byte
+     * @return The parsed action when the byte ends an action, {@link #NONE} otherwise. Plays and stop are
+     * encoded by {@link Move}; undo, redo and malformed input have their own negative codes.
+     */
+    public int feed(byte value) {
+        if (isWhitespace(value))
+            return endToken();
+
+        switch (state) {
+            case START:
+                return startToken(value);
+            case CARD_START:
+            case CARD:
+                if (value == '-' && state == CARD) {
+                    state = STACK_START;
+                } else if (isDigit(value) && digits < MAX_CARD_DIGITS) {
+                    card = card * 10 + value - '0';
+                    digits++;
+                    state = CARD;
+                } else {
+                    state = SKIP;
+                }
+                return NONE;
+            case STACK_START:
+                stack = value - '0';
+                state = stack >= 1 && stack <= 4 ? STACK : SKIP;
+                return NONE;
+            default:
+                state = SKIP;
+                return NONE;
+        }
+    }
+
+    /**
+     * Ends the input. An action that is not followed by whitespace yet is completed.
+     *
+     * @return The parsed action or {@link #NONE}
+     */
+    public int finish() {
+        return endToken();
+    }
+
+    public void reset() {
+        state = START;
+    }
+
+    private int startToken(byte value) {
+        if (value == 'C') {
+            card = 0;
+            digits = 0;
+            state = CARD_START;
+            return NONE;
+        }
+
+        state = END;
+        if (value == 'S')
+            result = Move.STOP;
+        else if (value == 'U')
+            result = UNDO;
+        else if (value == 'R')
+            result = REDO;
+        else
+            state = SKIP;
+        return NONE;
+    }
+
+    private int endToken() {
+        int previous = state;
+        state = START;
+        switch (previous) {
+            case START:
+                return NONE;
+            case END:
+                return result;
+            case STACK:
+                return card >= 2 && card <= 98 ? Move.play(card, stack) : MALFORMED;
+            default:
+                return MALFORMED;
+        }
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+}
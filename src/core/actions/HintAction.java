@@ -0,0 +1,25 @@
+package core.actions;
+
+import bot.HintEngine;
+import core.Move;
+import main.GameController;
+
+/**
+ * Suggests the next move in the action grammar, e.g. "Hint: C45-1".
+ */
+public class HintAction implements Action {
+
+    private final HintEngine hintEngine;
+
+    public HintAction(HintEngine hintEngine) {
+        this.hintEngine = hintEngine;
+    }
+
+    @Override
+    public String execute(GameController gameController) {
+        int move = hintEngine.hint(gameController);
+        if (Move.isStop(move))
+            return StaticMessages.HINT_MESSAGE + "S\n";
+        return StaticMessages.HINT_MESSAGE + "C" + Move.card(move) + "-" + Move.stack(move) + "\n";
+    }
+}
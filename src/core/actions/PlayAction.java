@@ -1,7 +1,7 @@
 package core.actions;
 
 import core.Card;
-import core.exceptions.InvalidActionException;
+import core.PlayResult;
 import core.exceptions.MalformedActionException;
 import main.GameController;
 
@@ -9,6 +9,7 @@ public class PlayAction implements Action {
 
     private Card card;
     private Integer cardStack;
+    private String message;
 
     public PlayAction(String[] action) {
         if (action.length != 2)
@@ -20,11 +21,16 @@ public class PlayAction implements Action {
         } catch (RuntimeException rex) {
             throw new MalformedActionException("Could not parse action properly.");
         }
+        message = playedMessage();
+    }
+
+    private String playedMessage() {
+        return "Played card: " + card.getValue() + " onto card stack: " + cardStack + "\n";
     }
 
     private void parseCard(String rawCard) {
         var sanitizedCard = rawCard.replace("C", "");
-        card = new Card(Integer.parseInt(sanitizedCard));
+        card = Card.of(Integer.parseInt(sanitizedCard));
         if (card.getValue() > 98 || card.getValue() < 2)
             throw new MalformedActionException("Card value needs to be between 98 and 2");
     }
@@ -37,20 +43,8 @@ public class PlayAction implements Action {
 
     @Override
     public String execute(GameController gameController) {
-        try {
-            return playCard(gameController);
-        } catch (InvalidActionException exception) {
+        if (gameController.tryPlay(card.getValue(), cardStack) != PlayResult.OK)
             return StaticMessages.INVALID_ACTION_MESSAGE;
-        }
-    }
-
-    private String playCard(GameController gameController) throws InvalidActionException {
-        var gameState = gameController.getGameState();
-        var hand = gameState.getHandCards();
-        if (!hand.contains(card))
-            throw new InvalidActionException("Your hand does not contain this card");
-
-        gameController.playCard(card, cardStack);
-        return "Played card: " + card.getValue() + " onto card stack: " + cardStack + "\n";
+        return message;
     }
 }
@@ -0,0 +1,14 @@
+package core.actions;
+
+import main.GameController;
+
+/**
+ * Makes the last move that was taken back again.
+ */
+public class RedoAction implements Action {
+
+    @Override
+    public String execute(GameController gameController) {
+        return gameController.redo() ? StaticMessages.REDO_MESSAGE : StaticMessages.NOTHING_TO_REDO_MESSAGE;
+    }
+}
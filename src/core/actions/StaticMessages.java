@@ -5,6 +5,12 @@ public class StaticMessages {
     public static final String GAME_WON_MESSAGE = "Congratulations you beat The Game!\n";
     public static final String GAME_LOST_MESSAGE = "Sorry you lost against The Game :( !\n";
     public static final String INVALID_ACTION_MESSAGE = "You can't make this action, please try again!\n";
+    public static final String UNDO_MESSAGE = "Took back the last move.\n";
+    public static final String NOTHING_TO_UNDO_MESSAGE = "There is no move to take back!\n";
+    public static final String REDO_MESSAGE = "Made the move again.\n";
+    public static final String NOTHING_TO_REDO_MESSAGE = "There is no move to make again!\n";
+
+    public static final String HINT_MESSAGE = "Hint: ";
 
     private StaticMessages() {
         // Is just a namespace for some constants
@@ -0,0 +1,14 @@
+package core.actions;
+
+import main.GameController;
+
+/**
+ * Takes back the last move of the player.
+ */
+public class UndoAction implements Action {
+
+    @Override
+    public String execute(GameController gameController) {
+        return gameController.undo() ? StaticMessages.UNDO_MESSAGE : StaticMessages.NOTHING_TO_UNDO_MESSAGE;
+    }
+}
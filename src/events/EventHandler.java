@@ -0,0 +1,15 @@
+package events;
+
+/**
+ * Receives events polled from an {@link EventRing}.
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+    /**
+     * Handles a single event.
+     *
+     * @param event The event encoded by {@link GameEvent}
+     */
+    void onEvent(long event);
+}
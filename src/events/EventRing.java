@@ -0,0 +1,116 @@
+package events;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A preallocated ring of events with a single producer and any number of consumers, similar to a disruptor.
+ * The producer never waits: it overwrites the oldest events, and a consumer that falls behind skips the events
+ * it missed and counts them. The slot of the oldest event is the one the producer writes next, so a consumer
+ * can only rely on the newest capacity - 1 events. Every consumer keeps its own
+ * position, so consumers do not slow each other down either. Publishing and polling do not allocate.
+ * <p>
+ * A slot is only overwritten after the cursor that gives up its old event is visible, and a consumer reads the cursor
+ * again after reading a slot. So a consumer that read an overwritten slot always sees it in the cursor and skips the
+ * event instead of handing it out.
+ */
+public class EventRing {
+
+    private final long[] events;
+    private final int mask;
+    // The sequence of the next event to publish, written by the producer only
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * Creates a ring.
+     *
+     * @param capacity The amount of events kept, rounded up to a power of two
+     */
+    public EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        events = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Publishes an event. Must only be called by the producer thread.
+     *
+     * @param event The event encoded by {@link GameEvent}
+     */
+    public void publish(long event) {
+        long sequence = cursor.getPlain();
+        // The slot still holds an older event: the cursor that makes it stale must be visible before it is overwritten
+        VarHandle.releaseFence();
+        events[(int) sequence & mask] = event;
+        cursor.setRelease(sequence + 1);
+    }
+
+    /**
+     * Creates a consumer that receives the events published from now on.
+     *
+     * @return The new consumer
+     */
+    public Subscription subscribe() {
+        return new Subscription(cursor.getAcquire());
+    }
+
+    public int capacity() {
+        return events.length;
+    }
+
+    /**
+     * A consumer of the ring. A subscription is meant to be polled by one thread.
+     */
+    public class Subscription {
+
+        private long sequence;
+        private long missed;
+
+        private Subscription(long sequence) {
+            this.sequence = sequence;
+        }
+
+        /**
+         * Hands all events published since the last poll to the handler, oldest first.
+         *
+         * @param handler Receives the events
+         * @return The amount of events handled
+         */
+        public int poll(EventHandler handler) {
+            int handled = 0;
+            long available = cursor.getAcquire();
+            while (sequence < available) {
+                if (available - sequence >= events.length)
+                    skipTo(available - events.length + 1);
+
+                long event = events[(int) sequence & mask];
+                // The slot may have been overwritten while it was read, so check again after reading it
+                VarHandle.acquireFence();
+                available = cursor.getAcquire();
+                if (available - sequence >= events.length) {
+                    skipTo(available - events.length + 1);
+                    continue;
+                }
+
+                sequence++;
+                handled++;
+                handler.onEvent(event);
+            }
+            return handled;
+        }
+
+        private void skipTo(long oldest) {
+            missed += oldest - sequence;
+            sequence = oldest;
+        }
+
+        /**
+         * Returns how many events were overwritten before this consumer read them.
+         *
+         * @return The amount of missed events
+         */
+        public long getMissed() {
+            return missed;
+        }
+    }
+}
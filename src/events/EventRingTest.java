@@ -0,0 +1,107 @@
+package events;
+
+import bot.GreedyStrategy;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.junit.Test;
+import sim.Simulator;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class EventRingTest {
+
+    private static final long EVENTS = 5_000_000;
+
+    @Test
+    public void testConsumersSeeGameEvents() {
+        var ring = new EventRing(1024);
+        var fast = ring.subscribe();
+        var gameController = new GameController(11L);
+        gameController.publishTo(ring);
+
+        var result = Simulator.playGame(gameController, new GreedyStrategy());
+        var events = new ArrayList<Long>();
+        fast.poll(events::add);
+
+        assertEquals(0, fast.getMissed());
+        long played = events.stream().filter(event -> GameEvent.type(event) == GameEvent.CARD_PLAYED).count();
+        assertEquals(97 - gameController.cardsLeft(), played);
+        long last = events.get(events.size() - 1);
+        assertEquals(result.name(), GameEvent.type(last) == GameEvent.GAME_WON ? "GAME_WON" : "GAME_LOST");
+        assertEquals(gameController.cardsLeft(), GameEvent.count(last));
+    }
+
+    @Test
+    public void testOutcomeIsPublishedOnce() throws InvalidActionException {
+        // The greedy strategy wins the first deal and loses the second one
+        for (long seed : new long[]{105L, 11L}) {
+            var ring = new EventRing(1024);
+            var consumer = ring.subscribe();
+            var gameController = new GameController(seed);
+            gameController.publishTo(ring);
+
+            var result = Simulator.playGame(gameController, new GreedyStrategy());
+            assertEquals(result, gameController.endTurn());
+            var events = new ArrayList<Long>();
+            consumer.poll(events::add);
+
+            int outcomes = 0;
+            for (int i = 0; i < events.size(); i++) {
+                int type = GameEvent.type(events.get(i));
+                if (type != GameEvent.GAME_WON && type != GameEvent.GAME_LOST)
+                    continue;
+                outcomes++;
+                assertEquals(result == ActionResult.GAME_WON ? GameEvent.GAME_WON : GameEvent.GAME_LOST, type);
+                // The outcome directly follows the change that ended the game
+                int previous = GameEvent.type(events.get(i - 1));
+                assertTrue(previous == GameEvent.CARD_PLAYED || previous == GameEvent.TURN_ENDED);
+                assertEquals(i + 1, events.size());
+            }
+            assertEquals(1, outcomes);
+        }
+    }
+
+    @Test
+    public void testSlowConsumerSkipsOverwrittenEvents() {
+        var ring = new EventRing(8);
+        var slow = ring.subscribe();
+        for (int i = 0; i < 20; i++) {
+            ring.publish(GameEvent.turnEnded(i, 1));
+        }
+
+        var versions = new ArrayList<Integer>();
+        assertEquals(7, slow.poll(event -> versions.add(GameEvent.version(event))));
+        assertEquals(13, slow.getMissed());
+        assertEquals(Integer.valueOf(13), versions.get(0));
+        assertEquals(0, slow.poll(event -> fail()));
+    }
+
+    @Test
+    public void testConcurrentConsumerOnlySeesItsOwnSequence() throws InterruptedException {
+        var ring = new EventRing(8);
+        var consumer = ring.subscribe();
+        // Each event is its own sequence, so an overwritten or torn read shows up as a wrong value
+        var producer = new Thread(() -> {
+            for (long sequence = 0; sequence < EVENTS; sequence++) {
+                ring.publish(sequence);
+            }
+        });
+        producer.start();
+
+        var handled = new long[1];
+        var checker = (EventHandler) event -> {
+            assertEquals(handled[0] + consumer.getMissed(), event);
+            handled[0]++;
+        };
+        while (producer.isAlive()) {
+            consumer.poll(checker);
+        }
+        producer.join();
+        consumer.poll(checker);
+
+        assertEquals(EVENTS, handled[0] + consumer.getMissed());
+    }
+}
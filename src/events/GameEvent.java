@@ -0,0 +1,79 @@
+package events;
+
+/**
+ * Encodes the events of a game as plain longs, so they can be published without allocating objects.
+ * <pre>
+ * bits  0 -  7 type
+ * bits  8 - 15 card (CARD_PLAYED)
+ * bits 16 - 23 stack (CARD_PLAYED)
+ * bits 24 - 31 cards drawn (TURN_ENDED) or cards left (GAME_WON, GAME_LOST)
+ * bits 32 - 63 the version of the game after the event, truncated to 32 bits
+ * </pre>
+ */
+public final class GameEvent {
+
+    public static final int CARD_PLAYED = 1;
+    public static final int TURN_ENDED = 2;
+    public static final int GAME_WON = 3;
+    public static final int GAME_LOST = 4;
+    /**
+     * The last play or end of turn was taken back.
+     */
+    public static final int UNDONE = 5;
+    /**
+     * A move that was taken back was made again.
+     */
+    public static final int REDONE = 6;
+
+    private static final int BYTE_MASK = 0xFF;
+
+    private GameEvent() {
+        // Is just a namespace for the encoding functions
+    }
+
+    public static long cardPlayed(long version, int card, int stack) {
+        return encode(version, CARD_PLAYED, card, stack, 0);
+    }
+
+    public static long turnEnded(long version, int drawn) {
+        return encode(version, TURN_ENDED, 0, 0, drawn);
+    }
+
+    public static long gameOver(long version, boolean won, int cardsLeft) {
+        return encode(version, won ? GAME_WON : GAME_LOST, 0, 0, cardsLeft);
+    }
+
+    public static long of(long version, int type) {
+        return encode(version, type, 0, 0, 0);
+    }
+
+    private static long encode(long version, int type, int card, int stack, int count) {
+        return version << 32 | (long) count << 24 | stack << 16 | card << 8 | type;
+    }
+
+    public static int type(long event) {
+        return (int) event & BYTE_MASK;
+    }
+
+    public static int card(long event) {
+        return (int) (event >>> 8) & BYTE_MASK;
+    }
+
+    public static int stack(long event) {
+        return (int) (event >>> 16) & BYTE_MASK;
+    }
+
+    /**
+     * Returns the cards drawn at the end of a turn or the cards left when the game is over.
+     *
+     * @param event The event
+     * @return The amount of cards
+     */
+    public static int count(long event) {
+        return (int) (event >>> 24) & BYTE_MASK;
+    }
+
+    public static int version(long event) {
+        return (int) (event >>> 32);
+    }
+}
@@ -0,0 +1,73 @@
+package main;
+
+import core.CardMask;
+import core.Deck;
+import core.Hand;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts a game to a small byte array and back. The deck is stored as its seed and the amount of drawn
+ * cards, the hand as its bit mask, so a compacted game takes 38 bytes. The version is kept, so the states of
+ * a restored game continue the versions seen before.
+ * <p>
+ * The undo history is not kept: a restored game can not take back the moves made before it was compacted,
+ * and its delta log only contains the moves made after restoring. So a restored game can not be recorded
+ * for the {@link replay.Replayer}, which replays the whole game from the seed.
+ */
+public final class CompactGame {
+
+    public static final int BYTES = 4 * Long.BYTES + Integer.BYTES + 2;
+
+    private static final int DECK_SIZE = 97;
+    private static final int HAND_SIZE = 8;
+    private static final int STACKS = 4;
+
+    private CompactGame() {
+        // Is just a namespace for the conversion functions
+    }
+
+    /**
+     * Compacts the current position of a game.
+     *
+     * @param gameController The game to compact
+     * @return The compacted game
+     */
+    public static byte[] compact(GameController gameController) {
+        var state = gameController.getGameState();
+        var hand = state.getHandMask();
+        int tops = State.packTops(state.getTop(1), state.getTop(2), state.getTop(3), state.getTop(4));
+
+        return ByteBuffer.allocate(BYTES)
+                .putLong(gameController.getSeed())
+                .putLong(state.getVersion())
+                .putLong(hand.getLow())
+                .putLong(hand.getHigh())
+                .putInt(tops)
+                .put((byte) (DECK_SIZE - state.remainingCards()))
+                .put((byte) state.getCardsPlayed())
+                .array();
+    }
+
+    /**
+     * Creates a game from its compacted form.
+     *
+     * @param compacted The bytes created by {@link #compact(GameController)}
+     * @return The restored game
+     */
+    public static GameController restore(byte[] compacted) {
+        var buffer = ByteBuffer.wrap(compacted);
+        var deck = new Deck(buffer.getLong());
+        long version = buffer.getLong();
+        var hand = new Hand(HAND_SIZE, new CardMask(buffer.getLong(), buffer.getLong()));
+        int packedTops = buffer.getInt();
+        deck.skip(buffer.get());
+        int cardsPlayed = buffer.get();
+
+        var tops = new int[STACKS];
+        for (int i = 0; i < STACKS; i++) {
+            tops[i] = packedTops >>> (8 * i) & 0xFF;
+        }
+        return new GameController(deck, hand, tops, cardsPlayed, version);
+    }
+}
@@ -1,13 +1,13 @@
 package main;
 
 import core.*;
-import core.actions.Action;
 import core.actions.ActionResult;
 import core.exceptions.InvalidActionException;
+import events.EventRing;
+import events.GameEvent;
+import metrics.Metrics;
 
 import java.util.List;
-import java.util.Stack;
-import java.util.function.BiFunction;
 
 /**
  * Encapsulates bootstrapping etc.
@@ -15,79 +15,479 @@ import java.util.function.BiFunction;
  */
 public class GameController {
 
-    private static final Integer UP_STACK_ONE = 1;
-    private static final Integer UP_STACK_TWO = 2;
-    private static final Integer DOWN_STACK_ONE = 3;
-    private static final Integer DOWN_STACK_TWO = 4;
+    private static final int UP_STACK_ONE = 1;
+    private static final int UP_STACK_TWO = 2;
+    private static final int DOWN_STACK_ONE = 3;
+    private static final int DOWN_STACK_TWO = 4;
+    private static final int STACKS = 4;
 
     private final List<CardStack> upStacks;
     private final List<CardStack> downStacks;
-    private final Stack<Action> actionHistory = new Stack<>();
+    private final DeltaLog history = new DeltaLog();
     private final Deck deck;
     private final Hand playerHand;
+    private final UnseenCards unseen = new UnseenCards();
+    // The amount of hand cards that can be pushed onto each stack, kept up to date by every change of the game
+    private final int[] playableCards = new int[STACKS];
+    // Zobrist hashes of the hand and the stack tops and of the mirrored position, see Zobrist
+    private long positionHash;
+    private long mirroredHash;
     private Integer cardsPlayed;
+    private long version;
+    private State snapshot;
+    private EventRing events;
+    // Whether the game is over, so the outcome is only published when the game first becomes won or lost
+    private boolean over;
 
     public GameController() {
+        this(new Deck());
+    }
+
+    /**
+     * Creates a game whose deck is shuffled with the given seed, so the game can be replayed.
+     *
+     * @param seed The seed of the deck
+     */
+    public GameController(long seed) {
+        this(new Deck(seed));
+    }
+
+    /**
+     * Restores a game from its position. Used to rehydrate compacted games. The history starts empty,
+     * so the moves that led to the position can not be taken back.
+     *
+     * @param deck        The deck with the drawn cards already removed
+     * @param hand        The hand of the player
+     * @param tops        The top values of the stacks 1 - 4
+     * @param cardsPlayed The amount of cards played in the current turn
+     * @param version     The version of the game when it was compacted
+     */
+    GameController(Deck deck, Hand hand, int[] tops, int cardsPlayed, long version) {
+        upStacks = List.of(new CardStack(Direction.UP, tops[0]), new CardStack(Direction.UP, tops[1]));
+        downStacks = List.of(new CardStack(Direction.DOWN, tops[2]), new CardStack(Direction.DOWN, tops[3]));
+        this.deck = deck;
+        this.playerHand = hand;
+        this.cardsPlayed = cardsPlayed;
+        this.version = version;
+        addUnseenCards();
+        countPlayableCards();
+        positionHash = Zobrist.hash(hand.getCardMask(), tops, false);
+        mirroredHash = Zobrist.hash(hand.getCardMask(), tops, true);
+    }
+
+    public GameController(Deck deck) {
         upStacks = List.of(new CardStack(Direction.UP), new CardStack(Direction.UP));
         downStacks = List.of(new CardStack(Direction.DOWN), new CardStack(Direction.DOWN));
 
-        deck = new Deck();
+        this.deck = deck;
         playerHand = new Hand(8); // The maxSize depends on the amount of players
+        addUnseenCards();
 
+        positionHash = Zobrist.hash(new CardMask(), new int[]{1, 1, 99, 99}, false);
+        mirroredHash = Zobrist.hash(new CardMask(), new int[]{1, 1, 99, 99}, true);
         // Draw the first hand
-        playerHand.draw(deck);
+        drawHand();
         cardsPlayed = 0;
     }
 
 
     public ActionResult endTurn() throws InvalidActionException {
-        if (cardsPlayed < 2 && playerHand.canMakeMove(upStacks, downStacks)) {
+        long start = Metrics.start();
+        try {
+            return checkedEndTurn();
+        } catch (InvalidActionException e) {
+            Metrics.invalidAction();
+            throw e;
+        } finally {
+            Metrics.recordSince(Metrics.END_TURN, start);
+        }
+    }
+
+    private ActionResult checkedEndTurn() throws InvalidActionException {
+        if (cardsPlayed < 2 && canMakeMove()) {
             throw new InvalidActionException("Illegal end of move!");
         } else if (gameIsWon()) {
             return ActionResult.GAME_WON;
         } else if (gameIsLost()) {
             return ActionResult.GAME_LOST;
         } else {
-            playerHand.draw(deck);
+            int handSize = playerHand.getHandSize();
+            drawHand();
+            int drawn = playerHand.getHandSize() - handSize;
+            history.recordTurnEnd(drawn, cardsPlayed);
             cardsPlayed = 0;
+            version++;
+            Metrics.turnEnded();
+            publish(GameEvent.turnEnded(version, drawn));
+            publishOutcome();
             return ActionResult.TURN_END;
         }
     }
 
     public boolean gameIsLost() {
-        return cardsPlayed < 2 && !playerHand.canMakeMove(upStacks, downStacks);
+        return cardsPlayed < 2 && !canMakeMove();
+    }
+
+    /**
+     * Checks whether any card of the hand can be pushed onto any stack. The counts are kept up to date
+     * by every move, so this does not look at the hand.
+     *
+     * @return true if there is at least one possible move
+     */
+    public boolean canMakeMove() {
+        return (playableCards[0] | playableCards[1] | playableCards[2] | playableCards[3]) != 0;
+    }
+
+    /**
+     * Returns the amount of hand cards that can be pushed onto the given stack.
+     *
+     * @param targetStack The number of the stack (1 - 4)
+     * @return The amount of playable cards
+     */
+    public int getPlayableCount(int targetStack) {
+        if (stackFor(targetStack) == null)
+            throw new IllegalArgumentException("No target stack matching the supplied integer");
+        return playableCards[targetStack - 1];
     }
 
     public boolean gameIsWon() {
         return playerHand.getHandSize() == 0 && deck.remaining() == 0;
     }
 
+    /**
+     * Returns the amount of cards that have not been played yet, i.e. the cards in the hand and in the deck.
+     *
+     * @return The amount of cards left
+     */
+    public int cardsLeft() {
+        return playerHand.getHandSize() + deck.remaining();
+    }
+
     public void playCard(Card card, Integer targetStack) throws InvalidActionException {
-        if (targetStack.equals(UP_STACK_ONE))
-            pushOnStack(upStacks.get(0), card);
-        else if (targetStack.equals(UP_STACK_TWO))
-            pushOnStack(upStacks.get(1), card);
-        else if (targetStack.equals(DOWN_STACK_ONE))
-            pushOnStack(downStacks.get(0), card);
-        else if (targetStack.equals(DOWN_STACK_TWO))
-            pushOnStack(downStacks.get(1), card);
-        else
-            throw new InvalidActionException("No target stack matching the supplied integer");
+        int result = tryPlay(card.getValue(), targetStack);
+        if (result != PlayResult.OK)
+            throw new InvalidActionException(PlayResult.message(result));
+    }
+
+    /**
+     * Plays a card from the hand if the move is legal. Illegal moves are reported by the result
+     * instead of an exception, so trying moves is cheap.
+     *
+     * @param card        The value of the card
+     * @param targetStack The number of the stack (1 - 4)
+     * @return A result code of {@link PlayResult}, the game is only changed on OK
+     */
+    public int tryPlay(int card, int targetStack) {
+        long start = Metrics.start();
+        int result = applyPlay(card, targetStack);
+        if (result != PlayResult.OK)
+            Metrics.invalidAction();
+        Metrics.recordSince(Metrics.PLAY_CARD, start);
+        return result;
+    }
+
+    private int applyPlay(int card, int targetStack) {
+        var cardStack = stackFor(targetStack);
+        if (cardStack == null)
+            return PlayResult.BAD_STACK;
+        if (!playerHand.getCardMask().contains(card))
+            return PlayResult.NOT_IN_HAND;
+
+        int previousTop = cardStack.getTopValue();
+        int result = pushOnStack(targetStack, card);
+        if (result == PlayResult.OK) {
+            history.recordPlay(card, targetStack, previousTop);
+            publish(GameEvent.cardPlayed(version, card, targetStack));
+            publishOutcome();
+        }
+        return result;
+    }
+
+    /**
+     * Takes back the last play or end of turn. Every change is reverted in constant time
+     * from the delta log, without copying the game.
+     *
+     * @return false if there is nothing to take back
+     */
+    public boolean undo() {
+        if (!history.canUndo())
+            return false;
+
+        int entry = history.undo();
+        if (DeltaLog.type(entry) == DeltaLog.PLAY) {
+            int stack = DeltaLog.stack(entry);
+            stackFor(stack).undoPush(DeltaLog.previousTop(entry));
+            playerHand.addHandCard(Card.of(DeltaLog.card(entry)));
+            updatePlayableCards(DeltaLog.card(entry), 1);
+            countPlayableCards(stack);
+            hashPlay(stack, DeltaLog.card(entry), DeltaLog.previousTop(entry), -1);
+            cardsPlayed -= 1;
+        } else {
+            for (int i = 0; i < DeltaLog.drawn(entry); i++) {
+                var card = deck.undraw();
+                playerHand.removeHandCard(card);
+                updatePlayableCards(card.getValue(), -1);
+                hashHandCard(card.getValue(), -1);
+                unseen.add(card.getValue());
+            }
+            cardsPlayed = DeltaLog.cardsPlayed(entry);
+        }
+        version++;
+        publish(GameEvent.of(version, GameEvent.UNDONE));
+        publishOutcome();
+        return true;
+    }
+
+    /**
+     * Applies the last change that was taken back again.
+     *
+     * @return false if there is nothing to apply again
+     */
+    public boolean redo() {
+        if (!history.canRedo())
+            return false;
+
+        int entry = history.redo();
+        if (DeltaLog.type(entry) == DeltaLog.PLAY) {
+            if (pushOnStack(DeltaLog.stack(entry), DeltaLog.card(entry)) != PlayResult.OK)
+                throw new IllegalStateException("The history does not match the game");
+        } else {
+            drawHand();
+            cardsPlayed = 0;
+            version++;
+        }
+        publish(GameEvent.of(version, GameEvent.REDONE));
+        publishOutcome();
+        return true;
+    }
+
+    /**
+     * Writes all legal moves of the current position into the buffer. These are all cards of the hand
+     * that can be pushed onto one of the stacks, encoded by {@link Move}, and the stop move if the turn may be ended.
+     * The buffer is cleared first, nothing is allocated.
+     *
+     * @param buffer The buffer the moves are written to
+     * @return The amount of legal moves
+     */
+    public int legalMoves(MoveBuffer buffer) {
+        buffer.clear();
+        playerHand.addLegalMoves(upStacks.get(0), UP_STACK_ONE, buffer);
+        playerHand.addLegalMoves(upStacks.get(1), UP_STACK_TWO, buffer);
+        playerHand.addLegalMoves(downStacks.get(0), DOWN_STACK_ONE, buffer);
+        playerHand.addLegalMoves(downStacks.get(1), DOWN_STACK_TWO, buffer);
+
+        if (cardsPlayed >= 2 || buffer.isEmpty())
+            buffer.add(Move.STOP);
+
+        return buffer.size();
+    }
+
+    /**
+     * Returns the value of the top card of the given stack.
+     *
+     * @param targetStack The number of the stack (1 - 4)
+     * @return The value of the top card
+     */
+    public int getTopValue(int targetStack) {
+        var cardStack = stackFor(targetStack);
+        if (cardStack == null)
+            throw new IllegalArgumentException("No target stack matching the supplied integer");
+        return cardStack.getTopValue();
+    }
+
+    /**
+     * Returns the seed of the deck, which is enough to replay this game.
+     *
+     * @return The seed of the deck
+     */
+    public long getSeed() {
+        return deck.getSeed();
+    }
 
+    /**
+     * Provides the log of all changes made to this game. The log must not be modified by the caller.
+     *
+     * @return The delta log of the game
+     */
+    public DeltaLog getHistory() {
+        return history;
     }
 
+    /**
+     * Publishes every change of this game to the ring. The game must only be changed by the producer thread
+     * of the ring afterwards.
+     *
+     * @param events The ring the events are published to, null to stop publishing
+     */
+    public void publishTo(EventRing events) {
+        this.events = events;
+    }
+
+    private void publish(long event) {
+        if (events != null)
+            events.publish(event);
+    }
+
+    /**
+     * Publishes and records the outcome if the last change won or lost the game. The playable counts are up to date,
+     * so this takes constant time. Undoing the end of a game allows its outcome to be published again.
+     */
+    private void publishOutcome() {
+        boolean won = gameIsWon();
+        boolean nowOver = won || gameIsLost();
+        if (nowOver && !over) {
+            publish(GameEvent.gameOver(version, won, cardsLeft()));
+            Metrics.gameOver(won, cardsLeft());
+        }
+        over = nowOver;
+    }
+
+    /**
+     * Returns a 64 bit key of the position that is the same for all symmetric positions: swapping the tops of
+     * the two stacks of a direction, or mirroring the game so that the stacks change their direction and every value v
+     * becomes 100 - v. The key is kept up to date by every change of the game, so this takes constant time.
+     * The order of the deck is not part of the key.
+     *
+     * @return The canonical key of the position
+     */
+    public long getPositionKey() {
+        return Math.min(positionHash, mirroredHash) + Zobrist.turn(deck.remaining(), cardsPlayed);
+    }
+
+    /**
+     * Provides the cards that are still in the deck. They are kept up to date by every draw and undo,
+     * so range counts and draw probabilities take constant time. The tracker must not be modified by the caller.
+     *
+     * @return The unseen cards
+     */
+    public UnseenCards getUnseenCards() {
+        return unseen;
+    }
+
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    /**
+     * Creates a compact copy of the current position that can be searched without touching this game.
+     *
+     * @return The packed copy of the game
+     */
+    public PackedGame pack() {
+        var remaining = new byte[deck.remaining()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = (byte) deck.cardAt(i);
+        }
+
+        var tops = new int[]{getTopValue(UP_STACK_ONE), getTopValue(UP_STACK_TWO),
+                getTopValue(DOWN_STACK_ONE), getTopValue(DOWN_STACK_TWO)};
+        return new PackedGame(playerHand.getCardMask().copy(), tops, remaining, cardsPlayed);
+    }
+
+    /**
+     * Returns an immutable snapshot of the game. The snapshot is only created again after the game changed,
+     * until then every call returns the same instance.
+     *
+     * @return The current state of the game
+     */
     public State getGameState() {
-        return new State(List.copyOf(upStacks), List.copyOf(downStacks), playerHand.copyHand(), deck.remaining());
+        long start = Metrics.start();
+        var current = snapshot;
+        if (current == null || current.getVersion() != version) {
+            int tops = State.packTops(upStacks.get(0).getTopValue(), upStacks.get(1).getTopValue(),
+                    downStacks.get(0).getTopValue(), downStacks.get(1).getTopValue());
+            current = new State(version, playerHand.getCardMask(), tops, deck.remaining(), cardsPlayed);
+            snapshot = current;
+        }
+        Metrics.recordSince(Metrics.GET_GAME_STATE, start);
+        return current;
     }
 
-    public void addActionToHistory(Action action) {
-        this.actionHistory.push(action);
+    private CardStack stackFor(int targetStack) {
+        if (targetStack == UP_STACK_ONE)
+            return upStacks.get(0);
+        else if (targetStack == UP_STACK_TWO)
+            return upStacks.get(1);
+        else if (targetStack == DOWN_STACK_ONE)
+            return downStacks.get(0);
+        else if (targetStack == DOWN_STACK_TWO)
+            return downStacks.get(1);
+        return null;
     }
 
-    private void pushOnStack(CardStack cards, Card card) throws InvalidActionException {
-        cards.push(card);
-        playerHand.removeHandCard(card);
+    private int pushOnStack(int targetStack, int card) {
+        int previousTop = stackFor(targetStack).getTopValue();
+        int result = stackFor(targetStack).tryPush(card);
+        if (result != PlayResult.OK)
+            return result;
+
+        playerHand.removeHandCard(Card.of(card));
+        // The card can not be pushed onto its own stack anymore, so that stack is counted again
+        updatePlayableCards(card, -1);
+        countPlayableCards(targetStack);
+        hashPlay(targetStack, card, previousTop, 1);
         cardsPlayed += 1;
+        version++;
+        return PlayResult.OK;
+    }
+
+    /**
+     * Adds a card that entered or left the hand to the counts of all stacks it can be pushed onto.
+     */
+    private void updatePlayableCards(int card, int delta) {
+        for (int stack = 1; stack <= STACKS; stack++) {
+            if (stackFor(stack).canPush(card))
+                playableCards[stack - 1] += delta;
+        }
+    }
+
+    private void drawHand() {
+        var hand = playerHand.getCardMask();
+        long low = hand.getLow();
+        long high = hand.getHigh();
+        playerHand.draw(deck);
+        for (long drawn = hand.getLow() & ~low; drawn != 0; drawn &= drawn - 1) {
+            handCardDrawn(Long.numberOfTrailingZeros(drawn));
+        }
+        for (long drawn = hand.getHigh() & ~high; drawn != 0; drawn &= drawn - 1) {
+            handCardDrawn(Long.SIZE + Long.numberOfTrailingZeros(drawn));
+        }
+        countPlayableCards();
+    }
+
+    private void handCardDrawn(int card) {
+        hashHandCard(card, 1);
+        unseen.remove(card);
+    }
+
+    private void addUnseenCards() {
+        for (int i = 0; i < deck.remaining(); i++) {
+            unseen.add(deck.cardAt(i));
+        }
+    }
+
+    /**
+     * Updates the hashes for a card that is played (sign 1) or taken back (sign -1).
+     */
+    private void hashPlay(int targetStack, int card, int previousTop, int sign) {
+        hashHandCard(card, -sign);
+        positionHash += sign * (Zobrist.top(targetStack, card) - Zobrist.top(targetStack, previousTop));
+        mirroredHash += sign * (Zobrist.mirroredTop(targetStack, card) - Zobrist.mirroredTop(targetStack, previousTop));
+    }
+
+    private void hashHandCard(int card, int sign) {
+        positionHash += sign * Zobrist.card(card);
+        mirroredHash += sign * Zobrist.mirroredCard(card);
+    }
+
+    private void countPlayableCards(int targetStack) {
+        playableCards[targetStack - 1] = stackFor(targetStack).countPlayable(playerHand.getCardMask());
+    }
+
+    private void countPlayableCards() {
+        for (int stack = 1; stack <= STACKS; stack++) {
+            countPlayableCards(stack);
+        }
     }
 
 }
@@ -0,0 +1,310 @@
+package main;
+
+import bot.GreedyStrategy;
+import core.Card;
+import core.CardMask;
+import core.Deck;
+import core.Hand;
+import core.Move;
+import core.MoveBuffer;
+import core.PlayResult;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import org.junit.Test;
+import sim.Simulator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class GameControllerTest {
+
+    @Test
+    public void testLegalMovesFollowTheRules() throws InvalidActionException {
+        var random = new SplittableRandom(7L);
+        var moves = new MoveBuffer();
+        for (int i = 0; i < 5; i++) {
+            var gameController = new GameController();
+            var result = ActionResult.TURN_END;
+            int played = 0;
+            while (result == ActionResult.TURN_END) {
+                assertLegalMovesFollowTheRules(gameController, moves, played);
+                int move = moves.get(random.nextInt(moves.size()));
+                if (Move.isStop(move)) {
+                    result = gameController.endTurn();
+                    played = 0;
+                } else {
+                    gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+                    played++;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUndoPlay() throws InvalidActionException {
+        var gameController = new GameController(1L);
+        var before = gameController.getGameState();
+        var moves = new MoveBuffer();
+        gameController.legalMoves(moves);
+        int move = moves.get(0);
+
+        gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+        assertTrue(gameController.undo());
+
+        assertSameState(before, gameController.getGameState());
+        assertFalse(gameController.undo());
+    }
+
+    @Test
+    public void testUndoAndRedoWholeGame() {
+        var gameController = new GameController(2L);
+        var start = gameController.getGameState();
+        var result = Simulator.playGame(gameController, new GreedyStrategy());
+        var end = gameController.getGameState();
+
+        while (gameController.undo()) {
+            // Take back every move
+        }
+        assertSameState(start, gameController.getGameState());
+        assertEquals(97 - 8, gameController.getGameState().remainingCards().intValue());
+
+        while (gameController.redo()) {
+            // Make every move again
+        }
+        assertSameState(end, gameController.getGameState());
+        assertEquals(result == ActionResult.GAME_WON, gameController.gameIsWon());
+    }
+
+    @Test
+    public void testNewMoveDropsRedo() throws InvalidActionException {
+        var gameController = new GameController(3L);
+        var moves = new MoveBuffer();
+        gameController.legalMoves(moves);
+        int move = moves.get(0);
+
+        gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+        gameController.undo();
+        gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+
+        assertFalse(gameController.redo());
+    }
+
+    @Test
+    public void testTryPlayResults() {
+        var gameController = new GameController(4L);
+        var before = gameController.getGameState();
+        int inHand = before.getHandMask().next(2);
+        int notInHand = inHand == 98 ? 97 : inHand + 1;
+        while (before.containsCard(notInHand)) {
+            notInHand++;
+        }
+
+        assertEquals(PlayResult.BAD_STACK, gameController.tryPlay(inHand, 5));
+        assertEquals(PlayResult.NOT_IN_HAND, gameController.tryPlay(notInHand, 1));
+        assertSame(before, gameController.getGameState());
+
+        assertEquals(PlayResult.OK, gameController.tryPlay(inHand, 1));
+        int other = gameController.getGameState().getHandMask().previous(inHand - 1);
+        if (other != -1)
+            assertEquals(PlayResult.WRONG_DIRECTION, gameController.tryPlay(other, 1));
+    }
+
+    @Test
+    public void testPlayableCountsFollowEveryChange() {
+        var gameController = new GameController(5L);
+        var moves = new MoveBuffer();
+        Simulator.playGame(gameController, game -> {
+            assertPlayableCounts(game, moves);
+            new GreedyStrategy().playTurn(game);
+            assertPlayableCounts(game, moves);
+        });
+
+        while (gameController.undo()) {
+            assertPlayableCounts(gameController, moves);
+        }
+        while (gameController.redo()) {
+            assertPlayableCounts(gameController, moves);
+        }
+    }
+
+    @Test
+    public void testLegalMovesMatchTryPlay() throws InvalidActionException {
+        var random = new SplittableRandom(9L);
+        var moves = new MoveBuffer();
+        var packedMoves = new MoveBuffer();
+        for (long seed = 10; seed < 15; seed++) {
+            var gameController = new GameController(seed);
+            var result = ActionResult.TURN_END;
+            while (result == ActionResult.TURN_END) {
+                assertLegalMoves(gameController, moves, packedMoves);
+                int move = moves.get(random.nextInt(moves.size()));
+                if (Move.isStop(move))
+                    result = gameController.endTurn();
+                else
+                    assertEquals(PlayResult.OK, gameController.tryPlay(Move.card(move), Move.stack(move)));
+            }
+        }
+    }
+
+    /**
+     * Checks the generated moves against trying every card of the hand on every stack, and against the packed game.
+     */
+    private static void assertLegalMoves(GameController gameController, MoveBuffer moves, MoveBuffer packedMoves) {
+        int count = gameController.legalMoves(moves);
+        assertEquals(moves.size(), count);
+        gameController.pack().legalMoves(packedMoves);
+        assertArrayEquals(sorted(moves), sorted(packedMoves));
+
+        var before = gameController.getGameState();
+        int plays = 0;
+        var hand = before.getHandMask();
+        for (int card = hand.next(0); card != -1; card = hand.next(card + 1)) {
+            for (int stack = 1; stack <= 4; stack++) {
+                boolean legal = gameController.tryPlay(card, stack) == PlayResult.OK;
+                if (legal)
+                    gameController.undo();
+                assertEquals("card " + card + " on stack " + stack, legal, moves.contains(Move.play(card, stack)));
+                if (legal)
+                    plays++;
+            }
+        }
+        assertSameState(before, gameController.getGameState());
+        assertEquals(before.getCardsPlayed() >= 2 || plays == 0, moves.canStop());
+        assertEquals(plays + (moves.canStop() ? 1 : 0), moves.size());
+    }
+
+    private static int[] sorted(MoveBuffer moves) {
+        var array = new int[moves.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = moves.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Test
+    public void testPositionKeyIsIncrementalAndSymmetric() {
+        var gameController = new GameController(6L);
+        Simulator.playGame(gameController, game -> {
+            new GreedyStrategy().playTurn(game);
+            assertEquals(CompactGame.restore(CompactGame.compact(game)).getPositionKey(), game.getPositionKey());
+        });
+        while (gameController.undo()) {
+            assertEquals(CompactGame.restore(CompactGame.compact(gameController)).getPositionKey(), gameController.getPositionKey());
+        }
+
+        var hand = new CardMask();
+        hand.add(12);
+        hand.add(40);
+        hand.add(77);
+        var mirroredHand = new CardMask();
+        mirroredHand.add(88);
+        mirroredHand.add(60);
+        mirroredHand.add(23);
+        long key = restored(hand, new int[]{5, 30, 90, 61}).getPositionKey();
+        assertEquals(key, restored(hand, new int[]{30, 5, 61, 90}).getPositionKey());
+        assertEquals(key, restored(mirroredHand, new int[]{10, 39, 95, 70}).getPositionKey());
+        assertNotEquals(key, restored(hand, new int[]{5, 31, 90, 61}).getPositionKey());
+        assertNotEquals(key, restored(mirroredHand, new int[]{5, 30, 90, 61}).getPositionKey());
+    }
+
+    @Test
+    public void testRestoredGameKeepsItsVersion() {
+        var gameController = new GameController(8L);
+        new GreedyStrategy().playTurn(gameController);
+        var state = gameController.getGameState();
+        assertTrue(state.getVersion() > 0);
+
+        var restored = CompactGame.restore(CompactGame.compact(gameController));
+        var restoredState = restored.getGameState();
+        assertEquals(state.getVersion(), restoredState.getVersion());
+        assertEquals(state.getHandMask(), restoredState.getHandMask());
+        assertEquals(state.getPackedTops(), restoredState.getPackedTops());
+        assertEquals(state.getCardsPlayed(), restoredState.getCardsPlayed());
+        // The history is not compacted
+        assertFalse(restored.undo());
+    }
+
+    private static GameController restored(CardMask hand, int[] tops) {
+        var deck = new Deck(1L);
+        deck.skip(50);
+        return new GameController(deck, new Hand(8, hand.copy()), tops, 0, 0);
+    }
+
+    @Test
+    public void testUnseenCardsFollowDrawsAndUndo() {
+        var gameController = new GameController(8L);
+        Simulator.playGame(gameController, game -> {
+            assertUnseenCards(game);
+            new GreedyStrategy().playTurn(game);
+        });
+        while (gameController.undo()) {
+            assertUnseenCards(gameController);
+        }
+        assertEquals(89, gameController.getUnseenCards().size());
+    }
+
+    private static void assertUnseenCards(GameController gameController) {
+        var game = gameController.pack();
+        var unseen = gameController.getUnseenCards();
+        assertEquals(game.deckRemaining(), unseen.size());
+        for (int from = 0; from < 100; from += 7) {
+            int to = from + 10;
+            int expected = 0;
+            for (int i = 0; i < game.deckRemaining(); i++) {
+                if (game.deckCard(i) >= from && game.deckCard(i) <= to)
+                    expected++;
+            }
+            assertEquals(expected, unseen.countBetween(from, to));
+            if (expected > 0)
+                assertEquals(expected / (double) game.deckRemaining(), unseen.drawProbability(from, to), 1e-12);
+        }
+    }
+
+    private static void assertPlayableCounts(GameController gameController, MoveBuffer moves) {
+        gameController.legalMoves(moves);
+        var expected = new int[4];
+        for (int i = 0; i < moves.size(); i++) {
+            if (!Move.isStop(moves.get(i)))
+                expected[Move.stack(moves.get(i)) - 1]++;
+        }
+        for (int stack = 1; stack <= 4; stack++) {
+            assertEquals(expected[stack - 1], gameController.getPlayableCount(stack));
+        }
+        assertEquals(moves.size() > 1 || !Move.isStop(moves.get(0)), gameController.canMakeMove());
+    }
+
+    private static void assertSameState(State expected, State actual) {
+        assertEquals(expected.getHandMask(), actual.getHandMask());
+        for (int stack = 1; stack <= 4; stack++) {
+            assertEquals(expected.getTop(stack), actual.getTop(stack));
+        }
+        assertEquals(expected.remainingCards(), actual.remainingCards());
+        assertEquals(expected.getCardsPlayed(), actual.getCardsPlayed());
+    }
+
+    /**
+     * Checks the generated moves against the rules: up stacks take higher cards, down stacks lower ones,
+     * both take the card exactly 10 back, and the turn may end after two cards or if nothing can be played.
+     */
+    private static void assertLegalMovesFollowTheRules(GameController gameController, MoveBuffer moves, int played) {
+        int count = gameController.legalMoves(moves);
+        assertEquals(moves.size(), count);
+
+        var hand = gameController.getGameState().getHandCards().getCardMask();
+        int plays = 0;
+        for (int card = hand.next(0); card != -1; card = hand.next(card + 1)) {
+            for (int stack = 1; stack <= 4; stack++) {
+                int top = gameController.getTopValue(stack);
+                boolean legal = stack <= 2 ? card > top || card == top - 10 : card < top || card == top + 10;
+                assertEquals("card " + card + " on stack " + stack, legal, moves.contains(Move.play(card, stack)));
+                if (legal)
+                    plays++;
+            }
+        }
+        assertEquals(played >= 2 || plays == 0, moves.canStop());
+        assertEquals(plays + (moves.canStop() ? 1 : 0), moves.size());
+    }
+}
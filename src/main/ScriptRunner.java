@@ -0,0 +1,216 @@
+package main;
+
+import core.Move;
+import core.PlayResult;
+import core.actions.ActionParser;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import metrics.Metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Plays scripts of actions in batch, e.g. for regression tests. A script uses the action grammar of the
+ * {@link TextBasedInterface} and may contain many games; each game starts with a header line
+ * {@code #<seed>} that deals a new game from the given seed. Actions before the first header are played
+ * on a game with seed 0.
+ * <p>
+ * The script is memory mapped and parsed byte by byte with an {@link ActionParser}. Play actions are
+ * applied with {@link GameController#tryPlay(int, int)}, which reports illegal moves by a result code,
+ * so playing a script hardly allocates.
+ */
+public class ScriptRunner {
+
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    private final ActionParser parser = new ActionParser();
+
+    private Consumer<ScriptSummary> summaries;
+    private GameController gameController;
+    private ActionResult result;
+    private long actions;
+    private long invalidActions;
+    private long totalActions;
+    private boolean implicitGame;
+
+    private boolean lineStart;
+    private boolean inHeader;
+    private boolean negativeSeed;
+    private long seed;
+
+    /**
+     * Plays all games of a script file.
+     *
+     * @param script    The path of the script
+     * @param summaries Receives the summary of every game in the order of the script
+     * @return The amount of actions in the script
+     * @throws IOException If the script can not be read
+     */
+    public long run(Path script, Consumer<ScriptSummary> summaries) throws IOException {
+        start(summaries);
+        try (var channel = FileChannel.open(script, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += CHUNK_BYTES) {
+                feed(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_BYTES, size - position)));
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Plays all games of a script that is already in memory.
+     *
+     * @param script    The bytes of the script
+     * @param summaries Receives the summary of every game in the order of the script
+     * @return The amount of actions in the script
+     */
+    public long run(ByteBuffer script, Consumer<ScriptSummary> summaries) {
+        start(summaries);
+        feed(script);
+        return finish();
+    }
+
+    private void start(Consumer<ScriptSummary> summaries) {
+        this.summaries = summaries;
+        parser.reset();
+        totalActions = 0;
+        lineStart = true;
+        inHeader = false;
+        newGame(0);
+        implicitGame = true;
+    }
+
+    private long finish() {
+        execute(parser.finish());
+        if (inHeader)
+            endHeader();
+        summarize();
+        return totalActions;
+    }
+
+    private void feed(ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            byte value = bytes.get();
+            if (inHeader) {
+                readHeader(value);
+            } else if (lineStart && value == '#') {
+                execute(parser.finish());
+                startHeader();
+            } else {
+                lineStart = value == '\n';
+                execute(parser.feed(value));
+            }
+        }
+    }
+
+    private void startHeader() {
+        inHeader = true;
+        negativeSeed = false;
+        seed = 0;
+    }
+
+    private void readHeader(byte value) {
+        if (value == '\n') {
+            endHeader();
+        } else if (value == '-') {
+            negativeSeed = true;
+        } else if (value >= '0' && value <= '9') {
+            seed = seed * 10 + value - '0';
+        }
+    }
+
+    private void endHeader() {
+        inHeader = false;
+        lineStart = true;
+        summarize();
+        newGame(negativeSeed ? -seed : seed);
+    }
+
+    private void newGame(long gameSeed) {
+        gameController = new GameController(gameSeed);
+        implicitGame = false;
+        result = ActionResult.TURN_END;
+        actions = 0;
+        invalidActions = 0;
+    }
+
+    private void summarize() {
+        // Only games with a header are summarized when they have no actions
+        if (implicitGame && actions == 0)
+            return;
+        summaries.accept(new ScriptSummary(gameController.getSeed(), actions, invalidActions, result,
+                gameController.cardsLeft()));
+    }
+
+    private void execute(int action) {
+        if (action == ActionParser.NONE)
+            return;
+
+        actions++;
+        totalActions++;
+        if (!isValid(action))
+            invalidActions++;
+    }
+
+    private boolean isValid(int action) {
+        if (action == ActionParser.MALFORMED) {
+            Metrics.malformedAction();
+            return false;
+        }
+        if (result != ActionResult.TURN_END)
+            return false;
+        if (action == ActionParser.UNDO)
+            return gameController.undo();
+        if (action == ActionParser.REDO)
+            return gameController.redo();
+        if (Move.isStop(action))
+            return endTurn();
+
+        long start = Metrics.start();
+        int played = gameController.tryPlay(Move.card(action), Move.stack(action));
+        Metrics.recordSince(Metrics.ACTION_EXECUTE, start);
+        return played == PlayResult.OK;
+    }
+
+    private boolean endTurn() {
+        if (gameController.getCardsPlayed() < 2 && gameController.canMakeMove()) {
+            Metrics.invalidAction();
+            return false;
+        }
+        try {
+            result = gameController.endTurn();
+        } catch (InvalidActionException e) {
+            throw new IllegalStateException("The end of the turn was checked before", e);
+        }
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var runner = new ScriptRunner();
+        var out = new BufferedWriter(new OutputStreamWriter(System.out));
+        for (String script : args) {
+            long start = System.nanoTime();
+            long actions = runner.run(Paths.get(script), summary -> {
+                try {
+                    out.write(summary.toString());
+                    out.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            double seconds = (System.nanoTime() - start) / 1e9;
+            out.write(script + ": " + actions + " actions, " + String.format("%.0f", actions / seconds) + " actions/sec");
+            out.newLine();
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,50 @@
+package main;
+
+import bot.GreedyStrategy;
+import core.DeltaLog;
+import core.actions.ActionResult;
+import org.junit.Test;
+import sim.Simulator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class ScriptRunnerTest {
+
+    @Test
+    public void testPlaysScriptedGames() {
+        var played = new GameController(5L);
+        var result = Simulator.playGame(played, new GreedyStrategy());
+
+        var script = new StringBuilder("#5\n");
+        var history = played.getHistory();
+        for (int i = 0; i < history.size(); i++) {
+            int entry = history.get(i);
+            if (DeltaLog.type(entry) == DeltaLog.PLAY)
+                script.append('C').append(DeltaLog.card(entry)).append('-').append(DeltaLog.stack(entry)).append(' ');
+            else
+                script.append("S\n");
+        }
+        script.append("S\n#-6\nC99-1 S");
+
+        var summaries = new ArrayList<ScriptSummary>();
+        long actions = new ScriptRunner().run(ByteBuffer.wrap(script.toString().getBytes(StandardCharsets.US_ASCII)), summaries::add);
+
+        assertEquals(2, summaries.size());
+        assertEquals(history.size() + 3, actions);
+
+        var first = summaries.get(0);
+        assertEquals(5L, first.getSeed());
+        assertEquals(0, first.getInvalidActions());
+        assertEquals(result, first.getResult());
+        assertEquals(played.cardsLeft(), first.getCardsLeft());
+
+        var second = summaries.get(1);
+        assertEquals(-6L, second.getSeed());
+        assertEquals(2, second.getInvalidActions());
+        assertEquals(ActionResult.TURN_END, second.getResult());
+    }
+}
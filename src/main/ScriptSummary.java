@@ -0,0 +1,61 @@
+package main;
+
+import core.actions.ActionResult;
+
+/**
+ * The outcome of a single game of an action script.
+ */
+public class ScriptSummary {
+
+    private final long seed;
+    private final long actions;
+    private final long invalidActions;
+    private final ActionResult result;
+    private final int cardsLeft;
+
+    /**
+     * Creates a summary.
+     *
+     * @param seed           The seed of the game
+     * @param actions        The amount of actions in the script of the game
+     * @param invalidActions The amount of actions that were malformed or not allowed
+     * @param result         The result of the last end of turn, TURN_END if the game is not finished
+     * @param cardsLeft      The amount of cards left in the hand and the deck
+     */
+    public ScriptSummary(long seed, long actions, long invalidActions, ActionResult result, int cardsLeft) {
+        this.seed = seed;
+        this.actions = actions;
+        this.invalidActions = invalidActions;
+        this.result = result;
+        this.cardsLeft = cardsLeft;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getActions() {
+        return actions;
+    }
+
+    public long getInvalidActions() {
+        return invalidActions;
+    }
+
+    public ActionResult getResult() {
+        return result;
+    }
+
+    public int getCardsLeft() {
+        return cardsLeft;
+    }
+
+    @Override
+    public String toString() {
+        return "Seed: " + seed
+                + " Actions: " + actions
+                + " Invalid: " + invalidActions
+                + " Result: " + (result == ActionResult.TURN_END ? "UNFINISHED" : result)
+                + " Cards left: " + cardsLeft;
+    }
+}
@@ -1,40 +1,156 @@
 package main;
 
+import core.CardMask;
 import core.CardStack;
+import core.Direction;
 import core.Hand;
 
 import java.util.List;
 
 /**
  * Read only view on the game state.
+ * A state is an immutable snapshot of the game at one version. It only consists of a few primitive fields,
+ * so it can be kept around and shared between threads freely. The GameController hands out the same
+ * snapshot until the game changes, so taking a snapshot usually does not allocate anything.
  */
-public class State {
-    private final List<CardStack> upStacks;
-    private final List<CardStack> downStacks;
-    private final Hand handCards;
-    private final Integer remainingCards;
+public final class State {
 
+    private static final int BITS_PER_TOP = 8;
+    private static final int TOP_MASK = 0xFF;
+    private static final int HAND_SIZE = 8;
 
-    public State(List<CardStack> upStacks, List<CardStack> downStacks, Hand handCards, Integer remainingCards) {
-        this.upStacks = upStacks;
-        this.downStacks = downStacks;
-        this.handCards = handCards;
+    private final long version;
+    private final long handLow;
+    private final long handHigh;
+    private final int tops;
+    private final int remainingCards;
+    private final int cardsPlayed;
+
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version        The version of the game this snapshot was taken at
+     * @param hand           The cards in the hand, they are copied
+     * @param tops           The values of the top cards of the stacks 1 - 4, 8 bits each, stack 1 in the lowest bits
+     * @param remainingCards The amount of cards in the deck
+     * @param cardsPlayed    The amount of cards played in the current turn
+     */
+    State(long version, CardMask hand, int tops, int remainingCards, int cardsPlayed) {
+        this.version = version;
+        this.handLow = hand.getLow();
+        this.handHigh = hand.getHigh();
+        this.tops = tops;
         this.remainingCards = remainingCards;
+        this.cardsPlayed = cardsPlayed;
+    }
+
+    /**
+     * Packs the top values of the four stacks into one int.
+     */
+    static int packTops(int upOne, int upTwo, int downOne, int downTwo) {
+        return upOne | upTwo << BITS_PER_TOP | downOne << 2 * BITS_PER_TOP | downTwo << 3 * BITS_PER_TOP;
     }
 
+    /**
+     * Returns the up stacks as detached copies. This allocates new objects on every call, prefer {@link #getTop(int)}.
+     *
+     * @return The up stacks
+     */
     public List<CardStack> getUpStacks() {
-        return upStacks;
+        return List.of(new CardStack(Direction.UP, getTop(1)), new CardStack(Direction.UP, getTop(2)));
     }
 
+    /**
+     * Returns the down stacks as detached copies. This allocates new objects on every call, prefer {@link #getTop(int)}.
+     *
+     * @return The down stacks
+     */
     public List<CardStack> getDownStacks() {
-        return downStacks;
+        return List.of(new CardStack(Direction.DOWN, getTop(3)), new CardStack(Direction.DOWN, getTop(4)));
     }
 
+    /**
+     * Returns a copy of the hand. This allocates new objects on every call, prefer {@link #containsCard(int)}.
+     *
+     * @return The hand
+     */
     public Hand getHandCards() {
-        return handCards;
+        return new Hand(HAND_SIZE, getHandMask());
     }
 
     public Integer remainingCards() {
         return remainingCards;
     }
+
+    /**
+     * Returns the value of the top card of a stack.
+     *
+     * @param stack The number of the stack, 1 and 2 go up, 3 and 4 go down
+     * @return The value of the top card
+     */
+    public int getTop(int stack) {
+        return (tops >>> (BITS_PER_TOP * (stack - 1))) & TOP_MASK;
+    }
+
+    /**
+     * Returns the values of all top cards packed into one int, 8 bits per stack, stack 1 in the lowest bits.
+     *
+     * @return The packed tops
+     */
+    public int getPackedTops() {
+        return tops;
+    }
+
+    public boolean containsCard(int card) {
+        if (card < 0 || card >= 2 * Long.SIZE)
+            return false;
+        if (card < Long.SIZE)
+            return (handLow & (1L << card)) != 0;
+        return (handHigh & (1L << (card - Long.SIZE))) != 0;
+    }
+
+    public int getHandSize() {
+        return Long.bitCount(handLow) + Long.bitCount(handHigh);
+    }
+
+    /**
+     * Returns the cards of the hand as a new mask.
+     *
+     * @return The hand cards
+     */
+    public CardMask getHandMask() {
+        return new CardMask(handLow, handHigh);
+    }
+
+    /**
+     * Returns the cards 0 - 63 of the hand, bit i is set if card i is in the hand.
+     *
+     * @return The lower half of the hand mask
+     */
+    public long getHandLow() {
+        return handLow;
+    }
+
+    /**
+     * Returns the cards 64 - 127 of the hand, bit i is set if card 64 + i is in the hand.
+     *
+     * @return The upper half of the hand mask
+     */
+    public long getHandHigh() {
+        return handHigh;
+    }
+
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    /**
+     * Returns the version of the game this snapshot was taken at. It increases with every change of the game.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
 }
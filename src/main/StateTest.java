@@ -0,0 +1,96 @@
+package main;
+
+import bot.GreedyStrategy;
+import core.Card;
+import core.CardMask;
+import core.Move;
+import core.MoveBuffer;
+import core.PlayResult;
+import core.exceptions.InvalidActionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StateTest {
+
+    @Test
+    public void testSnapshotIsSharedUntilTheGameChanges() throws InvalidActionException {
+        var gameController = new GameController(1L);
+        var state = gameController.getGameState();
+        assertSame(state, gameController.getGameState());
+
+        var moves = new MoveBuffer();
+        gameController.legalMoves(moves);
+        assertSame(state, gameController.getGameState());
+
+        int move = moves.get(0);
+        gameController.playCard(Card.of(Move.card(move)), Move.stack(move));
+        var next = gameController.getGameState();
+        assertNotSame(state, next);
+        assertTrue(next.getVersion() > state.getVersion());
+        assertSame(next, gameController.getGameState());
+    }
+
+    @Test
+    public void testSnapshotDoesNotFollowTheGame() {
+        var gameController = new GameController(2L);
+        var state = gameController.getGameState();
+        var hand = state.getHandMask();
+        var tops = new int[]{state.getTop(1), state.getTop(2), state.getTop(3), state.getTop(4)};
+        int remaining = state.remainingCards();
+
+        new GreedyStrategy().playTurn(gameController);
+        new GreedyStrategy().playTurn(gameController);
+        var mask = state.getHandMask();
+        mask.add(mask.contains(2) ? 3 : 2);
+
+        assertEquals(hand, state.getHandMask());
+        for (int stack = 1; stack <= 4; stack++) {
+            assertEquals(tops[stack - 1], state.getTop(stack));
+        }
+        assertEquals(remaining, state.remainingCards().intValue());
+        assertEquals(0, state.getCardsPlayed());
+        assertEquals(0, state.getVersion());
+        assertTrue(gameController.getGameState().getVersion() > 0);
+    }
+
+    @Test
+    public void testFailedPlayKeepsTheSnapshot() {
+        var gameController = new GameController(1L);
+        var state = gameController.getGameState();
+        assertNotEquals(PlayResult.OK, gameController.tryPlay(99, 1));
+        assertSame(state, gameController.getGameState());
+    }
+
+    @Test
+    public void testVersionIncreasesWithUndoAndRedo() {
+        var gameController = new GameController(3L);
+        new GreedyStrategy().playTurn(gameController);
+        long version = gameController.getGameState().getVersion();
+
+        assertTrue(gameController.undo());
+        long undone = gameController.getGameState().getVersion();
+        assertTrue(undone > version);
+        assertTrue(gameController.redo());
+        assertTrue(gameController.getGameState().getVersion() > undone);
+    }
+
+    @Test
+    public void testTopsAndHandArePackedPerStack() {
+        var hand = new CardMask(1L << 5, 1L << (98 - 64));
+        var state = new State(7L, hand, State.packTops(10, 20, 90, 80), 40, 1);
+        hand.add(6);
+        assertEquals(10, state.getTop(1));
+        assertEquals(20, state.getTop(2));
+        assertEquals(90, state.getTop(3));
+        assertEquals(80, state.getTop(4));
+        assertEquals(2, state.getHandSize());
+        assertTrue(state.containsCard(5));
+        assertTrue(state.containsCard(98));
+        assertFalse(state.containsCard(6));
+        assertFalse(state.containsCard(-1));
+        assertFalse(state.containsCard(128));
+        assertEquals(20, state.getUpStacks().get(1).getTopValue());
+        assertEquals(80, state.getDownStacks().get(1).getTopValue());
+    }
+}
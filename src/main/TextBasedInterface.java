@@ -1,17 +1,26 @@
 package main;
 
+import bot.HintEngine;
 import core.CardStack;
 import core.Hand;
 import core.actions.Action;
+import core.actions.ActionResult;
+import core.actions.HintAction;
 import core.actions.PlayAction;
+import core.actions.RedoAction;
 import core.actions.StaticMessages;
 import core.actions.StopAction;
+import core.actions.UndoAction;
 import core.exceptions.MalformedActionException;
 import fnlib.Maybe;
+import metrics.Metrics;
+import stream.OutputMode;
+import stream.StateStreamWriter;
 
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
@@ -27,12 +36,19 @@ public class TextBasedInterface {
     /**
      * This regex defines the actions. It is either S for stopping and initiating a new turn or C followed by the cards value
      * (2-98) and then follow by a hypen the number of the stack the card should be pushed on.
+     * U takes back the last move and R makes a move that was taken back again. H suggests a move.
      */
-    private static final Pattern ACTION_TEMPLATE = Pattern.compile("(C[0-9]{1,2}-[1-4])|S");
+    private static final Pattern ACTION_TEMPLATE = Pattern.compile("(C[0-9]{1,2}-[1-4])|S|U|R|H");
+    private static final Duration HINT_BUDGET = Duration.ofMillis(50);
+    private static final String INPUT_ERROR_MESSAGE = "Could not get input please try again\n";
 
     // Defined input and output for the cli interface to the game.
     private final Scanner scanner;
     private final PrintWriter writer;
+    // Only set if the state is streamed for machines
+    private final StateStreamWriter stateStream;
+    // Only created once a hint is asked for, it is closed when the game ends
+    private HintEngine hintEngine;
     private GameController gameController;
 
     /**
@@ -42,10 +58,40 @@ public class TextBasedInterface {
      * @param outputStream The outputStream to be used. Should not be null.
      */
     public TextBasedInterface(Optional<InputStream> inputStream, Optional<OutputStream> outputStream) {
+        this(inputStream, outputStream, OutputMode.TEXT);
+    }
+
+    /**
+     * This constructor uses the inputStream/outputStream that is given by the caller. With NDJSON or BINARY
+     * the state is written as a frame after every action instead of the messages for humans. Only messages that
+     * the state does not show, like invalid actions and hints, are written as message frames. The last frame
+     * contains the outcome of the game.
+     *
+     * @param inputStream  The inputStream to be used. Should not be null
+     * @param outputStream The outputStream to be used. Should not be null.
+     * @param outputMode   How the state of the game is written
+     */
+    public TextBasedInterface(Optional<InputStream> inputStream, Optional<OutputStream> outputStream, OutputMode outputMode) {
+        this(inputStream, outputStream, outputMode, new GameController());
+    }
+
+    /**
+     * Plays the given game instead of a new one, e.g. to replay a known deck.
+     *
+     * @param inputStream    The inputStream to be used. Should not be null
+     * @param outputStream   The outputStream to be used. Should not be null.
+     * @param outputMode     How the state of the game is written
+     * @param gameController The game to play
+     */
+    TextBasedInterface(Optional<InputStream> inputStream, Optional<OutputStream> outputStream, OutputMode outputMode,
+                       GameController gameController) {
+        OutputStream output = outputStream.orElse(System.out);
         scanner = inputStream.map(Scanner::new).orElseGet(() -> new Scanner(System.in));
-        writer = outputStream.map(PrintWriter::new).orElseGet(() -> new PrintWriter(System.out));
+        writer = new PrintWriter(output);
 
-        gameController = new GameController();
+        var encoder = outputMode.createEncoder();
+        stateStream = encoder == null ? null : new StateStreamWriter(output, encoder);
+        this.gameController = gameController;
     }
 
     /**
@@ -54,6 +100,7 @@ public class TextBasedInterface {
     public TextBasedInterface() {
         scanner = new Scanner(System.in);
         writer = new PrintWriter(System.out);
+        stateStream = null;
         gameController = new GameController();
     }
 
@@ -71,8 +118,23 @@ public class TextBasedInterface {
     }
 
     private Action convertStringToAction(String input) {
+        try {
+            return parseAction(input);
+        } catch (MalformedActionException e) {
+            Metrics.malformedAction();
+            throw e;
+        }
+    }
+
+    private Action parseAction(String input) {
         var cardAndCardStack = input.split("-");
-        if (cardAndCardStack.length == 1)
+        if (input.equals("U"))
+            return new UndoAction();
+        else if (input.equals("R"))
+            return new RedoAction();
+        else if (input.equals("H"))
+            return new HintAction(hintEngine());
+        else if (cardAndCardStack.length == 1)
             return new StopAction(gameController);
         else if (cardAndCardStack.length == 2)
             return new PlayAction(cardAndCardStack);
@@ -82,17 +144,42 @@ public class TextBasedInterface {
             };
     }
 
+    private HintEngine hintEngine() {
+        if (hintEngine == null)
+            hintEngine = new HintEngine(HINT_BUDGET);
+        return hintEngine;
+    }
+
+    /**
+     * Plays the game until it is over. The hint engine, if a hint was asked for, is closed when this returns.
+     */
     public void startGame() {
-        while (!gameController.gameIsLost() || !gameController.gameIsWon()) {
+        try {
+            playGame();
+        } finally {
+            if (hintEngine != null) {
+                hintEngine.close();
+                hintEngine = null;
+            }
+        }
+    }
+
+    private void playGame() {
+        while (!gameController.gameIsLost() && !gameController.gameIsWon()) {
             printGameState();
+            flush();
             var maybe = getInput();
             if (maybe.isErroneous()) {
-                writer.println("Could not get input please try again");
+                printMessage(INPUT_ERROR_MESSAGE);
             } else if (maybe.isPresent()) {
                 var action = maybe.getValue();
+                long version = gameController.getGameState().getVersion();
+                long start = Metrics.start();
                 String message = action.execute(gameController);
-                gameController.addActionToHistory(action);
-                writer.print(message);
+                Metrics.recordSince(Metrics.ACTION_EXECUTE, start);
+                // A frame of the new state follows every change, so only the other messages are streamed
+                if (stateStream == null || gameController.getGameState().getVersion() == version)
+                    printMessage(message);
             }
         }
 
@@ -105,7 +192,29 @@ public class TextBasedInterface {
     }
 
 
+    private void printMessage(String message) {
+        if (stateStream != null)
+            stateStream.writeMessage(message);
+        else
+            writer.print(message);
+    }
+
+    /**
+     * Makes everything written so far visible, which is only needed before waiting for the next action.
+     */
+    private void flush() {
+        if (stateStream != null)
+            stateStream.flush();
+        else
+            writer.flush();
+    }
+
     private void printGameState() {
+        if (stateStream != null) {
+            stateStream.write(gameController.getGameState());
+            return;
+        }
+
         var stateMessage = new StringBuilder();
         var state = gameController.getGameState();
         appendDownStacks(stateMessage, state.getDownStacks());
@@ -114,7 +223,6 @@ public class TextBasedInterface {
         appendHandCards(stateMessage, state.getHandCards());
 
         writer.print(stateMessage.toString());
-        writer.flush();
     }
 
 
@@ -150,6 +258,13 @@ public class TextBasedInterface {
     }
 
     private void printGameEndMessage() {
+        if (stateStream != null) {
+            var outcome = gameController.gameIsWon() ? ActionResult.GAME_WON : ActionResult.GAME_LOST;
+            stateStream.write(gameController.getGameState(), outcome);
+            stateStream.flush();
+            return;
+        }
+
         if (gameController.gameIsWon())
             writer.write(StaticMessages.GAME_WON_MESSAGE);
         if (gameController.gameIsLost())
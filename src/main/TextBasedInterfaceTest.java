@@ -0,0 +1,108 @@
+package main;
+
+import bot.GreedyStrategy;
+import core.DeltaLog;
+import core.actions.ActionResult;
+import core.actions.StaticMessages;
+import core.exceptions.InvalidActionException;
+import metrics.Metrics;
+import org.junit.Test;
+import sim.Simulator;
+import stream.OutputMode;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class TextBasedInterfaceTest {
+
+    @Test
+    public void testStreamedInvalidActionIsAMessageFrame() {
+        // Ending the first turn without playing is invalid, then the input ends
+        var input = new ByteArrayInputStream("S\n".getBytes(StandardCharsets.US_ASCII));
+        var output = new ByteArrayOutputStream();
+        var textBasedInterface = new TextBasedInterface(Optional.of(input), Optional.of(output), OutputMode.NDJSON);
+        try {
+            textBasedInterface.startGame();
+            fail();
+        } catch (NoSuchElementException e) {
+            // The input ended while waiting for the next action
+        }
+
+        var lines = output.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"version\":0,"));
+        String invalid = StaticMessages.INVALID_ACTION_MESSAGE.trim();
+        assertEquals("{\"message\":\"" + invalid + "\"}", lines[1]);
+        assertTrue(lines[2].startsWith("{\"version\":0,"));
+    }
+
+    @Test
+    public void testHintEngineIsClosedWhenTheGameReturns() throws InterruptedException {
+        var input = new ByteArrayInputStream("H\n".getBytes(StandardCharsets.US_ASCII));
+        var output = new ByteArrayOutputStream();
+        var textBasedInterface = new TextBasedInterface(Optional.of(input), Optional.of(output), OutputMode.NDJSON);
+        try {
+            textBasedInterface.startGame();
+            fail();
+        } catch (NoSuchElementException e) {
+            // The input ended after the hint
+        }
+
+        assertTrue(output.toString(StandardCharsets.US_ASCII).contains(StaticMessages.HINT_MESSAGE));
+        for (var thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("hint-search")) {
+                thread.join(5_000);
+                assertFalse(thread.isAlive());
+            }
+        }
+    }
+
+    @Test
+    public void testOutcomeIsCountedOnceWhenTheGameEnds() throws JMException, InvalidActionException {
+        // Play the moves of the greedy bot, the interface stops as soon as the game is over without ending the turn
+        var played = new GameController(21L);
+        var result = Simulator.playGame(played, new GreedyStrategy());
+        var input = new StringBuilder();
+        int turns = 0;
+        for (int i = 0; i < played.getHistory().size(); i++) {
+            int entry = played.getHistory().get(i);
+            if (DeltaLog.type(entry) == DeltaLog.PLAY) {
+                input.append('C').append(DeltaLog.card(entry)).append('-').append(DeltaLog.stack(entry)).append('\n');
+            } else {
+                input.append("S\n");
+                turns++;
+            }
+        }
+
+        long won = metric("GamesWon");
+        long lost = metric("GamesLost");
+        long turnsEnded = metric("TurnsEnded");
+        var gameController = new GameController(21L);
+        var textBasedInterface = new TextBasedInterface(Optional.of(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.US_ASCII))),
+                Optional.of(new ByteArrayOutputStream()), OutputMode.NDJSON, gameController);
+        textBasedInterface.startGame();
+
+        assertEquals(result == ActionResult.GAME_WON ? won + 1 : won, metric("GamesWon"));
+        assertEquals(result == ActionResult.GAME_LOST ? lost + 1 : lost, metric("GamesLost"));
+        assertEquals(turnsEnded + turns, metric("TurnsEnded"));
+
+        // Ending the turn of a game that is over neither ends a turn nor counts the game again
+        gameController.endTurn();
+        assertEquals(result == ActionResult.GAME_WON ? won + 1 : won, metric("GamesWon"));
+        assertEquals(result == ActionResult.GAME_LOST ? lost + 1 : lost, metric("GamesLost"));
+        assertEquals(turnsEnded + turns, metric("TurnsEnded"));
+    }
+
+    private static long metric(String name) throws JMException {
+        assertTrue("Metrics are enabled for the tests", Metrics.ENABLED);
+        return (Long) ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName("thegame:type=EngineMetrics"), name);
+    }
+}
@@ -0,0 +1,32 @@
+package metrics;
+
+/**
+ * The metrics of the game engine as seen through JMX. Latencies are in nanoseconds.
+ */
+public interface EngineMetricsMXBean {
+
+    LatencySnapshot getPlayCard();
+
+    LatencySnapshot getEndTurn();
+
+    LatencySnapshot getGameState();
+
+    LatencySnapshot getActionExecute();
+
+    long getInvalidActions();
+
+    long getMalformedActions();
+
+    long getGamesWon();
+
+    long getGamesLost();
+
+    long getTurnsEnded();
+
+    /**
+     * Returns how many lost games ended with a given amount of cards left, indexed by the amount of cards.
+     *
+     * @return The distribution of cards left in lost games
+     */
+    long[] getCardsLeftAtLoss();
+}
@@ -0,0 +1,106 @@
+package metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds with buckets of logarithmically growing width, like an HDR histogram.
+ * Every power of two is split into 32 buckets, so a recorded value is off by at most about 3 %.
+ * <p>
+ * Every thread records into its own counts, which only that thread writes to, so recording is a handful of
+ * plain memory operations without locks or contended atomics. Readers sum up the counts of all threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 39; // About 18 minutes, larger values are clamped
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+
+    private final String name;
+    private final List<AtomicLongArray> threadCounts = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<AtomicLongArray> counts = ThreadLocal.withInitial(() -> {
+        var threadCount = new AtomicLongArray(BUCKETS + 2);
+        threadCounts.add(threadCount);
+        return threadCount;
+    });
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a value of the current thread.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        var local = counts.get();
+        int bucket = bucketOf(value);
+        // Only this thread writes to its counts, release makes them visible to readers
+        local.setRelease(bucket, local.getPlain(bucket) + 1);
+        local.setRelease(SUM, local.getPlain(SUM) + value);
+        if (value > local.getPlain(MAX))
+            local.setRelease(MAX, value);
+    }
+
+    /**
+     * Sums up the counts of all threads. Values recorded while the snapshot is taken may be missing.
+     *
+     * @return The current distribution
+     */
+    public LatencySnapshot snapshot() {
+        var total = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (var threadCount : threadCounts) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucketCount = threadCount.getAcquire(i);
+                total[i] += bucketCount;
+                count += bucketCount;
+            }
+            sum += threadCount.getAcquire(SUM);
+            max = Math.max(max, threadCount.getAcquire(MAX));
+        }
+
+        return new LatencySnapshot(count, count == 0 ? 0 : sum / (double) count,
+                percentile(total, count, 0.5), percentile(total, count, 0.9),
+                percentile(total, count, 0.99), percentile(total, count, 0.999), max);
+    }
+
+    private static long percentile(long[] total, long count, double quantile) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < total.length; i++) {
+            seen += total[i];
+            if (seen >= rank && total[i] > 0)
+                return highestValueOf(i);
+        }
+        return 0;
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
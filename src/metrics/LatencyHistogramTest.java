@@ -0,0 +1,38 @@
+package metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAcrossThreads() throws InterruptedException {
+        var histogram = new LatencyHistogram("test");
+        Runnable recorder = () -> {
+            for (long value = 1; value <= 10_000; value++) {
+                histogram.record(value);
+            }
+        };
+        var thread = new Thread(recorder);
+        thread.start();
+        recorder.run();
+        thread.join();
+
+        var snapshot = histogram.snapshot();
+        assertEquals(20_000, snapshot.getCount());
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(5_000.5, snapshot.getMean(), 0.001);
+        assertEquals(5_000, snapshot.getP50(), 5_000 * 0.035);
+        assertEquals(9_900, snapshot.getP99(), 9_900 * 0.035);
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.highestValueOf(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.highestValueOf(bucket - 1));
+        }
+    }
+}
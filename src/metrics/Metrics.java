@@ -0,0 +1,222 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics of the game engine. Metrics are only collected if the system property
+ * {@code thegame.metrics} is true. The flag is a constant, so when it is off the JIT compiler removes the
+ * instrumentation from the callers entirely.
+ * <p>
+ * When enabled the metrics are registered as the MXBean {@code thegame:type=EngineMetrics}. If the
+ * property {@code thegame.metrics.file} is set, a report is written to that file every
+ * {@code thegame.metrics.interval} seconds (10 by default).
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("thegame.metrics");
+
+    public static final LatencyHistogram PLAY_CARD = new LatencyHistogram("playCard");
+    public static final LatencyHistogram END_TURN = new LatencyHistogram("endTurn");
+    public static final LatencyHistogram GET_GAME_STATE = new LatencyHistogram("getGameState");
+    public static final LatencyHistogram ACTION_EXECUTE = new LatencyHistogram("actionExecute");
+
+    private static final String OBJECT_NAME = "thegame:type=EngineMetrics";
+    private static final int MAX_CARDS_LEFT = 98;
+    private static final long DEFAULT_DUMP_SECONDS = 10;
+
+    private static final LongAdder INVALID_ACTIONS = new LongAdder();
+    private static final LongAdder MALFORMED_ACTIONS = new LongAdder();
+    private static final LongAdder GAMES_WON = new LongAdder();
+    private static final LongAdder GAMES_LOST = new LongAdder();
+    private static final LongAdder TURNS_ENDED = new LongAdder();
+    private static final AtomicLongArray CARDS_LEFT_AT_LOSS = new AtomicLongArray(MAX_CARDS_LEFT + 1);
+
+    static {
+        if (ENABLED) {
+            register();
+            var file = System.getProperty("thegame.metrics.file");
+            if (file != null)
+                startDump(Paths.get(file), Long.getLong("thegame.metrics.interval", DEFAULT_DUMP_SECONDS));
+        }
+    }
+
+    private Metrics() {
+        // Is just a namespace for the metrics
+    }
+
+    /**
+     * Starts a measurement.
+     *
+     * @return The start time to pass to {@link #recordSince(LatencyHistogram, long)}
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time passed since a measurement was started.
+     *
+     * @param histogram The histogram of the measured operation
+     * @param start     The value returned by {@link #start()}
+     */
+    public static void recordSince(LatencyHistogram histogram, long start) {
+        if (ENABLED)
+            histogram.record(System.nanoTime() - start);
+    }
+
+    public static void invalidAction() {
+        if (ENABLED)
+            INVALID_ACTIONS.increment();
+    }
+
+    public static void malformedAction() {
+        if (ENABLED)
+            MALFORMED_ACTIONS.increment();
+    }
+
+    public static void turnEnded() {
+        if (ENABLED)
+            TURNS_ENDED.increment();
+    }
+
+    /**
+     * Records the outcome of a game. Must only be called once per game, when it becomes won or lost.
+     *
+     * @param won       Whether the game was won
+     * @param cardsLeft The amount of cards left in the hand and the deck
+     */
+    public static void gameOver(boolean won, int cardsLeft) {
+        if (!ENABLED)
+            return;
+        if (won) {
+            GAMES_WON.increment();
+        } else {
+            GAMES_LOST.increment();
+            CARDS_LEFT_AT_LOSS.incrementAndGet(Math.min(cardsLeft, MAX_CARDS_LEFT));
+        }
+    }
+
+    /**
+     * Describes all metrics in a few lines of text.
+     *
+     * @return The report
+     */
+    public static String report() {
+        var view = new View();
+        var report = new StringBuilder();
+        for (var histogram : new LatencyHistogram[]{PLAY_CARD, END_TURN, GET_GAME_STATE, ACTION_EXECUTE}) {
+            report.append(histogram.getName()).append(": ").append(histogram.snapshot()).append('\n');
+        }
+        report.append("invalidActions: ").append(view.getInvalidActions()).append('\n')
+                .append("malformedActions: ").append(view.getMalformedActions()).append('\n')
+                .append("gamesWon: ").append(view.getGamesWon()).append('\n')
+                .append("gamesLost: ").append(view.getGamesLost()).append('\n')
+                .append("turnsEnded: ").append(view.getTurnsEnded()).append('\n')
+                .append("cardsLeftAtLoss:");
+        var cardsLeft = view.getCardsLeftAtLoss();
+        for (int i = 0; i < cardsLeft.length; i++) {
+            if (cardsLeft[i] > 0)
+                report.append(' ').append(i).append('=').append(cardsLeft[i]);
+        }
+        return report.append('\n').toString();
+    }
+
+    private static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new View(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the metrics", e);
+        }
+    }
+
+    private static void startDump(Path file, long intervalSeconds) {
+        var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> dump(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Replaces the file with the current report, readers never see a partially written report.
+     */
+    private static void dump(Path file) {
+        try {
+            var temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporary, report().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Try again with the next dump
+        }
+    }
+
+    private static class View implements EngineMetricsMXBean {
+
+        @Override
+        public LatencySnapshot getPlayCard() {
+            return PLAY_CARD.snapshot();
+        }
+
+        @Override
+        public LatencySnapshot getEndTurn() {
+            return END_TURN.snapshot();
+        }
+
+        @Override
+        public LatencySnapshot getGameState() {
+            return GET_GAME_STATE.snapshot();
+        }
+
+        @Override
+        public LatencySnapshot getActionExecute() {
+            return ACTION_EXECUTE.snapshot();
+        }
+
+        @Override
+        public long getInvalidActions() {
+            return INVALID_ACTIONS.sum();
+        }
+
+        @Override
+        public long getMalformedActions() {
+            return MALFORMED_ACTIONS.sum();
+        }
+
+        @Override
+        public long getGamesWon() {
+            return GAMES_WON.sum();
+        }
+
+        @Override
+        public long getGamesLost() {
+            return GAMES_LOST.sum();
+        }
+
+        @Override
+        public long getTurnsEnded() {
+            return TURNS_ENDED.sum();
+        }
+
+        @Override
+        public long[] getCardsLeftAtLoss() {
+            var cardsLeft = new long[CARDS_LEFT_AT_LOSS.length()];
+            for (int i = 0; i < cardsLeft.length; i++) {
+                cardsLeft[i] = CARDS_LEFT_AT_LOSS.get(i);
+            }
+            return cardsLeft;
+        }
+    }
+}
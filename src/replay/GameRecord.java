@@ -0,0 +1,84 @@
+package replay;
+
+import core.DeltaLog;
+import core.actions.ActionResult;
+import main.GameController;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary format of a recorded game:
+ * <pre>
+ * u16 length of the rest of the record
+ * i64 seed of the deck
+ * u8  outcome (0 = lost, 1 = won, 2 = not finished)
+ * the moves: a play takes two bytes, the card (2 - 98) and the stack (1 - 4), ending a turn takes a single 0 byte
+ * </pre>
+ * The final end of turn that decides a finished game is not stored, it is implied by the outcome.
+ * A record length of 0 marks the end of the records in a segment.
+ */
+public final class GameRecord {
+
+    public static final byte LOST = 0;
+    public static final byte WON = 1;
+    public static final byte UNFINISHED = 2;
+
+    public static final byte STOP = 0;
+
+    /**
+     * The size of the length field in front of every record.
+     */
+    public static final int LENGTH_BYTES = Short.BYTES;
+
+    /**
+     * The size of a record without moves, not counting the length field.
+     */
+    public static final int HEADER_BYTES = Long.BYTES + Byte.BYTES;
+
+    /**
+     * An upper bound for the size of any record including its length field.
+     */
+    public static final int MAX_BYTES = LENGTH_BYTES + HEADER_BYTES + 3 * 97;
+
+    private GameRecord() {
+        // Is just a namespace for the format
+    }
+
+    /**
+     * Encodes the game into the buffer, based on the history of the game.
+     *
+     * @param gameController The game to encode
+     * @param outcome        GAME_WON, GAME_LOST or TURN_END for games that are not finished
+     * @param target         The buffer the record is written to, it needs at least {@link #MAX_BYTES} bytes left
+     */
+    public static void encode(GameController gameController, ActionResult outcome, ByteBuffer target) {
+        int start = target.position();
+        target.position(start + LENGTH_BYTES);
+        target.putLong(gameController.getSeed());
+        target.put(outcomeCode(outcome));
+
+        var history = gameController.getHistory();
+        for (int i = 0; i < history.size(); i++) {
+            int entry = history.get(i);
+            if (DeltaLog.type(entry) == DeltaLog.PLAY) {
+                target.put((byte) DeltaLog.card(entry));
+                target.put((byte) DeltaLog.stack(entry));
+            } else {
+                target.put(STOP);
+            }
+        }
+
+        target.putShort(start, (short) (target.position() - start - LENGTH_BYTES));
+    }
+
+    public static byte outcomeCode(ActionResult outcome) {
+        switch (outcome) {
+            case GAME_WON:
+                return WON;
+            case GAME_LOST:
+                return LOST;
+            default:
+                return UNFINISHED;
+        }
+    }
+}
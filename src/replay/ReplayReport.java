@@ -0,0 +1,64 @@
+package replay;
+
+/**
+ * The result of verifying recorded games.
+ */
+public class ReplayReport {
+
+    private long games;
+    private long moves;
+    private long mismatches;
+    private long elapsedNanos;
+
+    void recordGame(int gameMoves, boolean matches) {
+        games++;
+        moves += gameMoves;
+        if (!matches)
+            mismatches++;
+    }
+
+    ReplayReport merge(ReplayReport other) {
+        games += other.games;
+        moves += other.moves;
+        mismatches += other.mismatches;
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the amount of games that contained an illegal move, ended differently than recorded or whose
+     * record is corrupt.
+     *
+     * @return The amount of games that failed verification
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Games: " + games + "\n"
+                + "Moves: " + moves + "\n"
+                + "Mismatches: " + mismatches + "\n"
+                + "Throughput: " + String.format("%.0f", getGamesPerSecond()) + " games/sec\n";
+    }
+}
@@ -0,0 +1,102 @@
+package replay;
+
+import core.PlayResult;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Re-verifies recorded games by playing every recorded move through a new GameController created from
+ * the recorded seed. Segments are independent of each other, so they are verified in parallel.
+ */
+public class Replayer {
+
+    /**
+     * Verifies all games of the given segments.
+     *
+     * @param segments The segment files to verify
+     * @return The aggregated result
+     */
+    public ReplayReport verify(Path... segments) {
+        long start = System.nanoTime();
+        var report = Arrays.stream(segments)
+                .parallel()
+                .map(this::verifySegment)
+                .reduce(ReplayReport::merge)
+                .orElseGet(ReplayReport::new);
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private ReplayReport verifySegment(Path segment) {
+        var report = new ReplayReport();
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SegmentWriter.MAGIC)
+                throw new IOException("Not a segment file: " + segment);
+
+            while (buffer.remaining() >= GameRecord.LENGTH_BYTES) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length == 0)
+                    break;
+
+                int end = buffer.position() + length;
+                if (length < GameRecord.HEADER_BYTES || end > buffer.limit()) {
+                    // The record is corrupt, and without its length the records after it can not be found either
+                    report.recordGame(0, false);
+                    break;
+                }
+                int moves = end - buffer.position() - GameRecord.HEADER_BYTES;
+                report.recordGame(moves, verifyGame(buffer, end));
+                buffer.position(end);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return report;
+    }
+
+    /**
+     * Replays a single record.
+     *
+     * @return true if every move was legal and the game ended as recorded
+     */
+    static boolean verifyGame(ByteBuffer buffer, int end) {
+        var gameController = new GameController(buffer.getLong());
+        byte outcome = buffer.get();
+
+        try {
+            while (buffer.position() < end) {
+                byte card = buffer.get();
+                if (card == GameRecord.STOP) {
+                    if (gameController.endTurn() != ActionResult.TURN_END)
+                        return false;
+                } else {
+                    // A play needs the card and the stack
+                    if (buffer.position() >= end || gameController.tryPlay(card, buffer.get()) != PlayResult.OK)
+                        return false;
+                }
+            }
+
+            if (outcome == GameRecord.UNFINISHED)
+                return true;
+            return GameRecord.outcomeCode(gameController.endTurn()) == outcome;
+        } catch (InvalidActionException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        var directory = Paths.get(args.length > 0 ? args[0] : "replays");
+        System.out.print(new Replayer().verify(SegmentWriter.listSegments(directory)));
+    }
+}
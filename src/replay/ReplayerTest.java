@@ -0,0 +1,87 @@
+package replay;
+
+import bot.GreedyStrategy;
+import core.actions.ActionResult;
+import main.GameController;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import sim.Simulator;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+public class ReplayerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordedGamesVerify() throws IOException {
+        var directory = folder.getRoot().toPath();
+        // Small segments, so the games are spread over several files
+        try (var writer = new SegmentWriter(directory, 4096, 16)) {
+            for (long seed = 0; seed < 100; seed++) {
+                var gameController = new GameController(seed);
+                writer.append(gameController, Simulator.playGame(gameController, new GreedyStrategy()));
+            }
+        }
+
+        var segments = SegmentWriter.listSegments(directory);
+        assertTrue(segments.length > 1);
+
+        var report = new Replayer().verify(segments);
+        assertEquals(100, report.getGames());
+        assertEquals(0, report.getMismatches());
+    }
+
+    @Test
+    public void testCorruptRecordFails() throws IOException {
+        var directory = folder.getRoot().toPath();
+        try (var writer = new SegmentWriter(directory, 4096, 16)) {
+            for (long seed = 0; seed < 2; seed++) {
+                var gameController = new GameController(seed);
+                writer.append(gameController, Simulator.playGame(gameController, new GreedyStrategy()));
+            }
+        }
+
+        // The length of the second record points past the end of the segment
+        var segment = SegmentWriter.listSegments(directory)[0];
+        try (var channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int second = SegmentWriter.SEGMENT_HEADER_BYTES + GameRecord.LENGTH_BYTES
+                    + Short.toUnsignedInt(buffer.getShort(SegmentWriter.SEGMENT_HEADER_BYTES));
+            buffer.putShort(second, (short) 0xFFFF);
+        }
+
+        var report = new Replayer().verify(segment);
+        assertEquals(2, report.getGames());
+        assertEquals(1, report.getMismatches());
+    }
+
+    @Test
+    public void testNewSegmentFollowsTheLastOne() throws IOException {
+        var directory = folder.getRoot().toPath();
+        try (var writer = new SegmentWriter(directory, 1024, 16)) {
+            for (long seed = 0; seed < 20; seed++) {
+                var gameController = new GameController(seed);
+                writer.append(gameController, Simulator.playGame(gameController, new GreedyStrategy()));
+            }
+        }
+        var segments = SegmentWriter.listSegments(directory);
+        assertTrue(segments.length > 1);
+        Files.delete(segments[0]);
+
+        try (var writer = new SegmentWriter(directory, 1024, 16)) {
+            writer.append(new GameController(1L), ActionResult.TURN_END);
+        }
+        var after = SegmentWriter.listSegments(directory);
+        assertEquals(segments.length, after.length);
+        assertEquals(SegmentWriter.segmentNumber(segments[segments.length - 1]) + 1,
+                SegmentWriter.segmentNumber(after[after.length - 1]));
+    }
+}
@@ -0,0 +1,128 @@
+package replay;
+
+import core.actions.ActionResult;
+import main.GameController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+
+/**
+ * Appends game records to memory mapped segment files in a directory. A segment is mapped once with its
+ * full size and filled from front to back; when it is full the writer continues with the next one.
+ * The mapped pages are forced to disk after a configurable amount of records and when a segment is completed.
+ * Unused space at the end of a segment stays zero, which reads as the end marker.
+ */
+public class SegmentWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x54474d31; // "TGM1"
+    public static final int SEGMENT_HEADER_BYTES = Integer.BYTES;
+
+    private static final String SEGMENT_FORMAT = "segment-%06d.log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{1,9})\\.log");
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int syncEveryRecords;
+    private final ByteBuffer scratch = ByteBuffer.allocate(GameRecord.MAX_BYTES);
+    private MappedByteBuffer segment;
+    private int segmentNumber;
+    private int unsyncedRecords;
+
+    /**
+     * Opens a writer that starts a new segment after the existing ones.
+     *
+     * @param directory        The directory of the segment files
+     * @param segmentBytes     The size of a single segment file
+     * @param syncEveryRecords After how many records the segment is forced to disk
+     * @throws IOException If the directory can not be read or the first segment can not be created
+     */
+    public SegmentWriter(Path directory, int segmentBytes, int syncEveryRecords) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncEveryRecords = syncEveryRecords;
+
+        Files.createDirectories(directory);
+        // Segments may have been deleted, so the count of the existing ones could be taken already
+        var segments = listSegments(directory);
+        segmentNumber = segments.length == 0 ? 0 : segmentNumber(segments[segments.length - 1]) + 1;
+        openSegment();
+    }
+
+    /**
+     * Appends the record of a game.
+     *
+     * @param gameController The game to record
+     * @param outcome        GAME_WON, GAME_LOST or TURN_END for games that are not finished
+     * @throws IOException If a new segment can not be created
+     */
+    public synchronized void append(GameController gameController, ActionResult outcome) throws IOException {
+        scratch.clear();
+        GameRecord.encode(gameController, outcome, scratch);
+        scratch.flip();
+
+        // Keep room for the end marker
+        if (segment.remaining() < scratch.remaining() + GameRecord.LENGTH_BYTES) {
+            segment.force();
+            segmentNumber++;
+            openSegment();
+        }
+        segment.put(scratch);
+
+        if (++unsyncedRecords >= syncEveryRecords)
+            sync();
+    }
+
+    /**
+     * Forces all records written so far to disk.
+     */
+    public synchronized void sync() {
+        segment.force();
+        unsyncedRecords = 0;
+    }
+
+    private void openSegment() throws IOException {
+        var path = directory.resolve(String.format(SEGMENT_FORMAT, segmentNumber));
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segment.putInt(MAGIC);
+    }
+
+    /**
+     * Lists the segment files of a directory in the order they were written.
+     *
+     * @param directory The directory of the segment files
+     * @return The paths of the segments
+     * @throws IOException If the directory can not be read
+     */
+    public static Path[] listSegments(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(path -> segmentNumber(path) >= 0)
+                    .sorted(Comparator.comparingInt(SegmentWriter::segmentNumber))
+                    .toArray(Path[]::new);
+        }
+    }
+
+    /**
+     * Returns the number of a segment file.
+     *
+     * @param path The path of the file
+     * @return The number, -1 if the file is not a segment
+     */
+    static int segmentNumber(Path path) {
+        var matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        sync();
+    }
+}
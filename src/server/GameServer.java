@@ -0,0 +1,325 @@
+package server;
+
+import core.CardMask;
+import core.Move;
+import core.PlayResult;
+import core.actions.ActionParser;
+import core.actions.ActionResult;
+import core.actions.StaticMessages;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Hosts one game per TCP connection. Clients send the actions of the text interface separated by whitespace:
+ * {@code C<card>-<stack>}, {@code S}, {@code U} and {@code R}. Every action is answered with exactly one line,
+ * either the new state of the game
+ * <pre>
+ * STATE top1 top2 top3 top4 remainingCards cardsPlayed handCards...
+ * </pre>
+ * or one of the messages of {@link StaticMessages}. The state is also sent right after connecting.
+ * When the game is won or lost the connection is closed after the message was sent.
+ * <p>
+ * A single thread serves all connections with a selector. All actions that arrive with one read are
+ * answered with one write, and a connection that does not read its answers stops being read from
+ * until it caught up. If its unwritten answers grow beyond a limit anyway, the connection is closed.
+ * Apart from the game, a connection only costs a few objects. An error in one game only closes its connection.
+ */
+public class GameServer implements Runnable, AutoCloseable {
+
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_ANSWER_BYTES = 128;
+    private static final int MAX_PENDING_BYTES = 256 * 1024;
+
+    private static final byte[] STATE_PREFIX = "STATE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INVALID_ACTION = bytes(StaticMessages.INVALID_ACTION_MESSAGE);
+    private static final byte[] NOTHING_TO_UNDO = bytes(StaticMessages.NOTHING_TO_UNDO_MESSAGE);
+    private static final byte[] NOTHING_TO_REDO = bytes(StaticMessages.NOTHING_TO_REDO_MESSAGE);
+    private static final byte[] GAME_WON = bytes(StaticMessages.GAME_WON_MESSAGE);
+    private static final byte[] GAME_LOST = bytes(StaticMessages.GAME_LOST_MESSAGE);
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Supplier<GameController> games;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+    private volatile boolean running = true;
+
+    /**
+     * Opens a server that starts a new random game for every connection.
+     *
+     * @param address The address to listen on, port 0 picks a free port
+     * @throws IOException If the address can not be bound
+     */
+    public GameServer(InetSocketAddress address) throws IOException {
+        this(address, GameController::new);
+    }
+
+    /**
+     * Opens a server.
+     *
+     * @param address The address to listen on, port 0 picks a free port
+     * @param games   Creates the game of a new connection
+     * @throws IOException If the address can not be bound
+     */
+    public GameServer(InetSocketAddress address, Supplier<GameController> games) throws IOException {
+        this.games = games;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 0);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serves connections until the server is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                var keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    var key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Selector failed", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid())
+                return;
+            if (key.isAcceptable())
+                accept();
+            else if (key.isReadable())
+                read(key);
+            else if (key.isWritable())
+                writePending(key);
+        } catch (IOException | RuntimeException e) {
+            // Only this connection is affected, the others are still served
+            disconnect(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            try {
+                open(channel);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+            }
+        }
+    }
+
+    private void open(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        var session = new Session(games.get(), MAX_PENDING_BYTES);
+        var key = channel.register(selector, SelectionKey.OP_READ, session);
+
+        writeBuffer.clear();
+        putState(session.gameController);
+        flush(key, session);
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        var channel = (SocketChannel) key.channel();
+        var session = (Session) key.attachment();
+
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if (read == -1) {
+            disconnect(key);
+            return;
+        }
+        readBuffer.flip();
+
+        writeBuffer.clear();
+        while (readBuffer.hasRemaining() && !session.finished) {
+            int action = session.parser.feed(readBuffer.get());
+            if (action == ActionParser.NONE)
+                continue;
+
+            if (writeBuffer.remaining() < MAX_ANSWER_BYTES) {
+                flush(key, session);
+                writeBuffer.clear();
+            }
+            execute(session, action);
+        }
+        flush(key, session);
+    }
+
+    private void execute(Session session, int action) {
+        var gameController = session.gameController;
+        if (action == ActionParser.MALFORMED) {
+            Metrics.malformedAction();
+            writeBuffer.put(INVALID_ACTION);
+        } else if (action == ActionParser.UNDO) {
+            if (gameController.undo())
+                putState(gameController);
+            else
+                writeBuffer.put(NOTHING_TO_UNDO);
+        } else if (action == ActionParser.REDO) {
+            if (gameController.redo())
+                putState(gameController);
+            else
+                writeBuffer.put(NOTHING_TO_REDO);
+        } else if (Move.isStop(action)) {
+            endTurn(session);
+        } else {
+            play(gameController, action);
+        }
+    }
+
+    private void play(GameController gameController, int move) {
+        if (gameController.tryPlay(Move.card(move), Move.stack(move)) == PlayResult.OK)
+            putState(gameController);
+        else
+            writeBuffer.put(INVALID_ACTION);
+    }
+
+    private void endTurn(Session session) {
+        try {
+            var result = session.gameController.endTurn();
+            if (result == ActionResult.TURN_END) {
+                putState(session.gameController);
+                return;
+            }
+
+            writeBuffer.put(result == ActionResult.GAME_WON ? GAME_WON : GAME_LOST);
+            session.finished = true;
+        } catch (InvalidActionException e) {
+            writeBuffer.put(INVALID_ACTION);
+        }
+    }
+
+    private void putState(GameController gameController) {
+        var state = gameController.getGameState();
+        writeBuffer.put(STATE_PREFIX);
+        for (int stack = 1; stack <= 4; stack++) {
+            putNumber(state.getTop(stack));
+        }
+        putNumber(state.remainingCards());
+        putNumber(state.getCardsPlayed());
+
+        CardMask hand = state.getHandMask();
+        for (int card = hand.next(0); card != -1; card = hand.next(card + 1)) {
+            putNumber(card);
+        }
+        writeBuffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes a space and a number between 0 and 999.
+     */
+    private void putNumber(int value) {
+        writeBuffer.put((byte) ' ');
+        if (value >= 100)
+            writeBuffer.put((byte) ('0' + value / 100));
+        if (value >= 10)
+            writeBuffer.put((byte) ('0' + value / 10 % 10));
+        writeBuffer.put((byte) ('0' + value % 10));
+    }
+
+    /**
+     * Writes the answers collected in the write buffer. Whatever the socket does not take right away is
+     * kept by the session, and the connection is not read from until it is written.
+     */
+    private void flush(SelectionKey key, Session session) throws IOException {
+        writeBuffer.flip();
+        if (session.hasPending()) {
+            keep(session);
+            return;
+        }
+
+        ((SocketChannel) key.channel()).write(writeBuffer);
+        if (writeBuffer.hasRemaining()) {
+            keep(session);
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (session.finished) {
+            disconnect(key);
+        }
+    }
+
+    private void keep(Session session) throws IOException {
+        if (!session.keep(writeBuffer))
+            throw new IOException("The client does not read its answers");
+    }
+
+    private void writePending(SelectionKey key) throws IOException {
+        var session = (Session) key.attachment();
+        if (!session.writePending((SocketChannel) key.channel()))
+            return;
+
+        if (session.finished)
+            disconnect(key);
+        else
+            key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // The connection is gone either way
+        }
+    }
+
+    private void shutdown() {
+        for (var key : selector.keys()) {
+            disconnect(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Nothing left to clean up
+        }
+    }
+
+    /**
+     * Stops serving. The thread running the server closes all connections before it returns.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private static byte[] bytes(String message) {
+        return message.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4711;
+        try (var server = new GameServer(new InetSocketAddress(port))) {
+            System.out.println("Listening on port " + server.getPort());
+            server.run();
+        }
+    }
+}
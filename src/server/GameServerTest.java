@@ -0,0 +1,99 @@
+package server;
+
+import core.Move;
+import core.MoveBuffer;
+import core.actions.StaticMessages;
+import main.GameController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+
+    private static final long SEED = 7L;
+
+    private GameServer server;
+    private Thread serverThread;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), () -> new GameController(SEED));
+        serverThread = new Thread(server, "game-server");
+        serverThread.start();
+    }
+
+    @After
+    public void stopServer() throws InterruptedException {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    public void testPlaysBatchedActions() throws IOException {
+        var expected = new GameController(SEED);
+        var moves = new MoveBuffer();
+        expected.legalMoves(moves);
+        int move = moves.get(0);
+
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            assertTrue(in.readLine().startsWith("STATE " + expected.getTopValue(1)));
+
+            String play = "C" + Move.card(move) + "-" + Move.stack(move);
+            out.write((play + " X " + play + "\nU\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            String afterPlay = in.readLine();
+            assertTrue(afterPlay.startsWith("STATE"));
+            assertTrue(afterPlay.contains(" " + (expected.cardsLeft() - 8) + " 1 "));
+            assertEquals(StaticMessages.INVALID_ACTION_MESSAGE, in.readLine() + "\n");
+            assertEquals(StaticMessages.INVALID_ACTION_MESSAGE, in.readLine() + "\n");
+            assertTrue(in.readLine().contains(" " + (expected.cardsLeft() - 8) + " 0 "));
+        }
+    }
+
+    @Test
+    public void testErrorInOneGameOnlyClosesItsConnection() throws IOException, InterruptedException {
+        var broken = new GameController(SEED) {
+            @Override
+            public int tryPlay(int card, int targetStack) {
+                throw new IllegalStateException("Broken game");
+            }
+        };
+        var games = new GameController[]{broken, new GameController(SEED)};
+        var next = new int[1];
+        try (var otherServer = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), () -> games[next[0]++])) {
+            var otherThread = new Thread(otherServer, "other-game-server");
+            otherThread.start();
+            try (var brokenSocket = new Socket(InetAddress.getLoopbackAddress(), otherServer.getPort());
+                 var socket = new Socket(InetAddress.getLoopbackAddress(), otherServer.getPort())) {
+                var brokenIn = new BufferedReader(new InputStreamReader(brokenSocket.getInputStream(), StandardCharsets.US_ASCII));
+                var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                assertTrue(brokenIn.readLine().startsWith("STATE"));
+                assertTrue(in.readLine().startsWith("STATE"));
+
+                brokenSocket.getOutputStream().write("C2-1\n".getBytes(StandardCharsets.US_ASCII));
+                assertNull(brokenIn.readLine());
+
+                socket.getOutputStream().write("S\n".getBytes(StandardCharsets.US_ASCII));
+                assertEquals(StaticMessages.INVALID_ACTION_MESSAGE, in.readLine() + "\n");
+            } finally {
+                otherServer.close();
+                otherThread.join();
+            }
+        }
+    }
+}
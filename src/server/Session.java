@@ -0,0 +1,78 @@
+package server;
+
+import core.actions.ActionParser;
+import main.GameController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+
+/**
+ * The state the server keeps per connection. Reading and writing go through buffers shared by all
+ * connections; a connection only gets its own buffers while the client does not keep up with reading.
+ */
+class Session {
+
+    final GameController gameController;
+    final ActionParser parser = new ActionParser();
+    private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+    private final int maxPendingBytes;
+    private int pendingBytes;
+    boolean finished;
+
+    /**
+     * Creates the state of a new connection.
+     *
+     * @param gameController  The game of the connection
+     * @param maxPendingBytes The amount of unwritten bytes kept at most for a client that does not read
+     */
+    Session(GameController gameController, int maxPendingBytes) {
+        this.gameController = gameController;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * Keeps a copy of the bytes that could not be written yet, after the ones that are already waiting.
+     * The bytes are copied once; the bytes already waiting are not touched.
+     *
+     * @param bytes The unwritten bytes, they are consumed
+     * @return false if the bytes were not kept because the client fell too far behind
+     */
+    boolean keep(ByteBuffer bytes) {
+        if (pendingBytes + bytes.remaining() > maxPendingBytes)
+            return false;
+
+        var copy = ByteBuffer.allocate(bytes.remaining());
+        copy.put(bytes).flip();
+        pending.add(copy);
+        pendingBytes += copy.remaining();
+        return true;
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    int getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Writes the kept bytes in order until the channel does not take more.
+     *
+     * @param channel The channel of the connection
+     * @return true if all kept bytes are written
+     * @throws IOException If writing fails
+     */
+    boolean writePending(WritableByteChannel channel) throws IOException {
+        ByteBuffer bytes;
+        while ((bytes = pending.peek()) != null) {
+            pendingBytes -= channel.write(bytes);
+            if (bytes.hasRemaining())
+                return false;
+            pending.poll();
+        }
+        return true;
+    }
+}
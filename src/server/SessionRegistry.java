@@ -0,0 +1,192 @@
+package server;
+
+import main.CompactGame;
+import main.GameController;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Holds the games of many players and routes actions to them by game id. The games are spread over
+ * shards with their own lock, so actions on different games rarely wait for each other.
+ * <p>
+ * Games that were not touched for longer than the time to live are compacted with {@link CompactGame}
+ * and only restored when they are used again. A compacted game loses its undo history.
+ */
+public class SessionRegistry implements AutoCloseable {
+
+    private static final int DEFAULT_SHARDS = 64;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long ttlNanos;
+    private final AtomicLong nextId = new AtomicLong();
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Creates a registry that checks for idle games in the background.
+     *
+     * @param ttl How long a game may be idle before it is compacted
+     */
+    public SessionRegistry(Duration ttl) {
+        this(DEFAULT_SHARDS, ttl);
+    }
+
+    /**
+     * Creates a registry that checks for idle games in the background.
+     *
+     * @param shards The amount of shards, rounded up to a power of two
+     * @param ttl    How long a game may be idle before it is compacted
+     */
+    public SessionRegistry(int shards, Duration ttl) {
+        int size = Integer.highestOneBit(Math.max(1, shards - 1)) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+        this.ttlNanos = ttl.toNanos();
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, ttlNanos / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Adds a game.
+     *
+     * @param gameController The game
+     * @return The id of the game
+     */
+    public long add(GameController gameController) {
+        long id = nextId.incrementAndGet();
+        var shard = shardFor(id);
+        synchronized (shard) {
+            shard.sessions.put(id, new Entry(gameController, System.nanoTime()));
+        }
+        return id;
+    }
+
+    /**
+     * Runs an action on a game while no other thread can access it. A compacted game is restored first.
+     *
+     * @param id     The id of the game
+     * @param action The action to run
+     * @param <T>    The result type of the action
+     * @return The result of the action or empty if there is no game with this id
+     */
+    public <T> Optional<T> withGame(long id, Function<GameController, T> action) {
+        var shard = shardFor(id);
+        synchronized (shard) {
+            var entry = shard.sessions.get(id);
+            if (entry == null)
+                return Optional.empty();
+
+            if (entry.game == null) {
+                entry.game = CompactGame.restore(entry.compacted);
+                entry.compacted = null;
+            }
+            entry.lastAccess = System.nanoTime();
+            return Optional.ofNullable(action.apply(entry.game));
+        }
+    }
+
+    public boolean remove(long id) {
+        var shard = shardFor(id);
+        synchronized (shard) {
+            return shard.sessions.remove(id) != null;
+        }
+    }
+
+    /**
+     * Compacts all games that were idle for longer than the time to live.
+     *
+     * @return The amount of games that were compacted
+     */
+    public int evictIdle() {
+        return evictIdleSince(System.nanoTime() - ttlNanos);
+    }
+
+    int evictIdleSince(long threshold) {
+        int evicted = 0;
+        for (var shard : shards) {
+            synchronized (shard) {
+                for (var entry : shard.sessions.values()) {
+                    if (entry.game != null && entry.lastAccess - threshold < 0) {
+                        entry.compacted = CompactGame.compact(entry.game);
+                        entry.game = null;
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (var shard : shards) {
+            synchronized (shard) {
+                size += shard.sessions.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Counts the games that are not compacted.
+     *
+     * @return The amount of live games
+     */
+    public int liveSize() {
+        int live = 0;
+        for (var shard : shards) {
+            synchronized (shard) {
+                for (var entry : shard.sessions.values()) {
+                    if (entry.game != null)
+                        live++;
+                }
+            }
+        }
+        return live;
+    }
+
+    private Shard shardFor(long id) {
+        // Spread consecutive ids over all shards
+        long hash = id * 0x9e3779b97f4a7c15L;
+        return shards[(int) (hash >>> 32) & shardMask];
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+    }
+
+    private static class Shard {
+        private final HashMap<Long, Entry> sessions = new HashMap<>();
+    }
+
+    /**
+     * Either the live game or its compacted form is set.
+     */
+    private static class Entry {
+        private GameController game;
+        private byte[] compacted;
+        private long lastAccess;
+
+        private Entry(GameController game, long lastAccess) {
+            this.game = game;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
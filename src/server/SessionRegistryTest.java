@@ -0,0 +1,46 @@
+package server;
+
+import core.Card;
+import core.Move;
+import core.MoveBuffer;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.*;
+
+public class SessionRegistryTest {
+
+    @Test
+    public void testEvictedGameIsRestored() {
+        try (var registry = new SessionRegistry(4, Duration.ofHours(1))) {
+            long id = registry.add(new GameController(3L));
+            var moves = new MoveBuffer();
+            String before = registry.withGame(id, game -> {
+                game.legalMoves(moves);
+                try {
+                    game.playCard(Card.of(Move.card(moves.get(0))), Move.stack(moves.get(0)));
+                } catch (InvalidActionException e) {
+                    fail();
+                }
+                return describe(game);
+            }).orElseThrow();
+
+            assertEquals(1, registry.evictIdleSince(System.nanoTime() + 1));
+            assertEquals(0, registry.liveSize());
+
+            assertEquals(before, registry.withGame(id, SessionRegistryTest::describe).orElseThrow());
+            assertEquals(1, registry.liveSize());
+            assertFalse(registry.withGame(id + 1, SessionRegistryTest::describe).isPresent());
+        }
+    }
+
+    private static String describe(GameController game) {
+        var state = game.getGameState();
+        return game.getSeed() + " " + state.getHandMask().getLow() + " " + state.getHandMask().getHigh() + " "
+                + state.getTop(1) + " " + state.getTop(2) + " " + state.getTop(3) + " " + state.getTop(4) + " "
+                + state.remainingCards() + " " + state.getCardsPlayed() + " " + game.cardsLeft();
+    }
+}
@@ -0,0 +1,83 @@
+package server;
+
+import main.GameController;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class SessionTest {
+
+    @Test
+    public void testKeptBytesAreWrittenInOrder() throws Exception {
+        var session = new Session(new GameController(1L), 64);
+        assertTrue(session.keep(ascii("first ")));
+        assertTrue(session.keep(ascii("second ")));
+        assertTrue(session.keep(ascii("third")));
+        assertEquals(18, session.getPendingBytes());
+
+        var written = new ByteArrayOutputStream();
+        var slow = new SlowChannel(written, 4);
+        assertFalse(session.writePending(slow));
+        assertEquals(14, session.getPendingBytes());
+        while (!session.writePending(slow)) {
+            assertTrue(session.hasPending());
+        }
+
+        assertFalse(session.hasPending());
+        assertEquals(0, session.getPendingBytes());
+        assertEquals("first second third", written.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testClientThatDoesNotReadIsRefused() {
+        var session = new Session(new GameController(1L), 16);
+        assertTrue(session.keep(ByteBuffer.allocate(10)));
+        var tooMuch = ByteBuffer.allocate(7);
+        assertFalse(session.keep(tooMuch));
+        assertEquals(7, tooMuch.remaining());
+        assertEquals(10, session.getPendingBytes());
+        assertTrue(session.keep(ByteBuffer.allocate(6)));
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Takes at most a few bytes per write, like a socket whose send buffer is almost full.
+     */
+    private static class SlowChannel implements WritableByteChannel {
+
+        private final ByteArrayOutputStream target;
+        private final int bytesPerWrite;
+
+        private SlowChannel(ByteArrayOutputStream target, int bytesPerWrite) {
+            this.target = target;
+            this.bytesPerWrite = bytesPerWrite;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = Math.min(bytesPerWrite, source.remaining());
+            for (int i = 0; i < length; i++) {
+                target.write(source.get());
+            }
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
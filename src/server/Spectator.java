@@ -0,0 +1,52 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * The state the spectator server keeps per connection. Frames are shared by all spectators of a game,
+ * a spectator only keeps its own read-only view of the frame it is currently writing.
+ */
+class Spectator {
+
+    final ByteBuffer request;
+    final ArrayDeque<ByteBuffer> queue;
+    final int maxQueued;
+    String game;
+    ByteBuffer writing;
+    long dropped;
+
+    Spectator(int requestBytes, int maxQueued) {
+        this.request = ByteBuffer.allocate(requestBytes);
+        this.queue = new ArrayDeque<>(maxQueued);
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Queues a frame. Every frame contains the whole state, so a spectator that falls behind only needs the
+     * latest one: if the queue is full, all waiting frames are dropped.
+     *
+     * @param frame The shared frame, it is not modified
+     */
+    void offer(ByteBuffer frame) {
+        if (queue.size() >= maxQueued) {
+            dropped += queue.size();
+            queue.clear();
+        }
+        queue.add(frame);
+    }
+
+    /**
+     * Returns the bytes to write next, taking the next frame from the queue if the current one is written.
+     *
+     * @return The unwritten bytes, null if there is nothing to write
+     */
+    ByteBuffer next() {
+        if (writing != null && writing.hasRemaining())
+            return writing;
+
+        var frame = queue.poll();
+        writing = frame == null ? null : frame.duplicate();
+        return writing;
+    }
+}
@@ -0,0 +1,366 @@
+package server;
+
+import bot.GreedyStrategy;
+import core.actions.ActionResult;
+import main.GameController;
+import main.State;
+import sim.Simulator;
+import stream.NdjsonEncoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streams running games to spectators as server-sent events. A spectator requests
+ * {@code GET /games/<game>} and receives every published state of that game as one event:
+ * <pre>
+ * id: 12
+ * event: state
+ * data: {"version":12,"tops":[1,1,99,99],"deck":81,"played":0,"hand":[3,17,24,50,61,70,88,93]}
+ * </pre>
+ * A new spectator first gets the latest state of the game. The last state of a game that is over contains its
+ * outcome, see {@link NdjsonEncoder}; after it the server forgets the game.
+ * <p>
+ * The server does not watch games by itself: the thread that changes a game publishes it after every change
+ * spectators should see. Subscribing to the {@link events.EventRing} of a game would not be enough, since events
+ * only describe changes and the state of a {@link GameController} must not be read by another thread.
+ * <p>
+ * Every state is encoded once into a read-only frame that all spectators of the game share. A single thread
+ * serves all connections with a selector, like the {@link GameServer}. Each spectator has a small queue of frames;
+ * a spectator that does not keep up only gets the latest state instead of slowing down the others.
+ */
+public class SpectatorServer implements Runnable, AutoCloseable {
+
+    private static final int REQUEST_BYTES = 1024;
+    private static final int MAX_QUEUED_FRAMES = 8;
+    private static final String GAMES_PATH = "/games/";
+
+    private static final byte[] EVENT_STREAM = ascii("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream\r\n"
+            + "Cache-Control: no-cache\r\nConnection: keep-alive\r\n\r\n");
+    private static final byte[] NOT_FOUND = ascii("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n");
+    private static final byte[] ID = ascii("id: ");
+    private static final byte[] EVENT = ascii("\nevent: state\ndata: ");
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final NdjsonEncoder encoder = new NdjsonEncoder();
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(2 * encoder.maxFrameBytes());
+    private final ByteBuffer discardBuffer = ByteBuffer.allocate(REQUEST_BYTES);
+    private final ConcurrentLinkedQueue<Published> published = new ConcurrentLinkedQueue<>();
+    // Only used by the selector thread
+    private final Map<String, List<SelectionKey>> spectators = new HashMap<>();
+    private final Map<String, ByteBuffer> latest = new HashMap<>();
+    private volatile boolean running = true;
+
+    /**
+     * Opens a server.
+     *
+     * @param address The address to listen on, port 0 picks a free port
+     * @throws IOException If the address can not be bound
+     */
+    public SpectatorServer(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 0);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Sends a state of a game that is not over to all its spectators. The state is encoded once on the calling thread,
+     * the serving thread only queues the shared frame. Can be called from any thread.
+     *
+     * @param game  The name of the game in the request path
+     * @param state The new state of the game
+     */
+    public void publish(String game, State state) {
+        publish(game, state, ActionResult.TURN_END);
+    }
+
+    /**
+     * Sends the current state of a game to all its spectators, including the outcome once the game is over.
+     * Must be called by the thread that changes the game, after every change.
+     *
+     * @param game           The name of the game in the request path
+     * @param gameController The game
+     */
+    public void publish(String game, GameController gameController) {
+        ActionResult outcome = ActionResult.TURN_END;
+        if (gameController.gameIsWon())
+            outcome = ActionResult.GAME_WON;
+        else if (gameController.gameIsLost())
+            outcome = ActionResult.GAME_LOST;
+        publish(game, gameController.getGameState(), outcome);
+    }
+
+    private void publish(String game, State state, ActionResult outcome) {
+        published.add(new Published(game, encode(state, outcome), outcome != ActionResult.TURN_END));
+        selector.wakeup();
+    }
+
+    private synchronized ByteBuffer encode(State state, ActionResult outcome) {
+        encodeBuffer.clear();
+        encodeBuffer.put(ID);
+        encodeBuffer.put(ascii(Long.toString(state.getVersion())));
+        encodeBuffer.put(EVENT);
+        encoder.encode(state, outcome, encodeBuffer);
+        // The encoder ends the line already, a blank line ends the event
+        encodeBuffer.put((byte) '\n');
+        encodeBuffer.flip();
+
+        var frame = new byte[encodeBuffer.remaining()];
+        encodeBuffer.get(frame);
+        return ByteBuffer.wrap(frame).asReadOnlyBuffer();
+    }
+
+    /**
+     * Serves spectators until the server is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                deliverPublished();
+                var keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    var key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Selector failed", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void deliverPublished() {
+        Published next;
+        while ((next = published.poll()) != null) {
+            // A new spectator of a game that is over gets nothing, until a new game with the same name starts
+            if (next.last)
+                latest.remove(next.game);
+            else
+                latest.put(next.game, next.frame);
+            var watching = spectators.get(next.game);
+            if (watching == null)
+                continue;
+
+            for (int i = watching.size() - 1; i >= 0; i--) {
+                var key = watching.get(i);
+                ((Spectator) key.attachment()).offer(next.frame);
+                try {
+                    write(key);
+                } catch (IOException e) {
+                    disconnect(key);
+                }
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid())
+                return;
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            if (key.isReadable())
+                read(key);
+            if (key.isValid() && key.isWritable())
+                write(key);
+        } catch (IOException e) {
+            disconnect(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Spectator(REQUEST_BYTES, MAX_QUEUED_FRAMES));
+        }
+    }
+
+    /**
+     * Reads the request of a new spectator. After that, reading only notices when the spectator leaves.
+     */
+    private void read(SelectionKey key) throws IOException {
+        var channel = (SocketChannel) key.channel();
+        var spectator = (Spectator) key.attachment();
+        if (spectator.game != null || !spectator.request.hasRemaining()) {
+            discardBuffer.clear();
+            if (channel.read(discardBuffer) == -1)
+                disconnect(key);
+            return;
+        }
+
+        if (channel.read(spectator.request) == -1) {
+            disconnect(key);
+            return;
+        }
+        var request = new String(spectator.request.array(), 0, spectator.request.position(), StandardCharsets.US_ASCII);
+        if (!request.contains("\r\n\r\n")) {
+            if (!spectator.request.hasRemaining())
+                reject(key);
+            return;
+        }
+
+        String game = gameOf(request);
+        if (game == null) {
+            reject(key);
+            return;
+        }
+
+        spectator.game = game;
+        spectators.computeIfAbsent(game, name -> new ArrayList<>()).add(key);
+        spectator.offer(ByteBuffer.wrap(EVENT_STREAM).asReadOnlyBuffer());
+        var frame = latest.get(game);
+        if (frame != null)
+            spectator.offer(frame);
+        write(key);
+    }
+
+    /**
+     * Extracts the game from a request line like {@code GET /games/<game> HTTP/1.1}.
+     */
+    private static String gameOf(String request) {
+        int lineEnd = request.indexOf("\r\n");
+        var parts = request.substring(0, lineEnd).split(" ");
+        if (parts.length != 3 || !parts[0].equals("GET") || !parts[1].startsWith(GAMES_PATH))
+            return null;
+        var game = parts[1].substring(GAMES_PATH.length());
+        return game.isEmpty() || game.contains("/") ? null : game;
+    }
+
+    private void reject(SelectionKey key) {
+        try {
+            ((SocketChannel) key.channel()).write(ByteBuffer.wrap(NOT_FOUND));
+        } catch (IOException e) {
+            // The connection is closed anyway
+        }
+        disconnect(key);
+    }
+
+    /**
+     * Writes queued frames until the socket does not take more. The rest is written once the socket is writable again;
+     * until then the connection is still read from, so a spectator that leaves is noticed.
+     */
+    private void write(SelectionKey key) throws IOException {
+        var channel = (SocketChannel) key.channel();
+        var spectator = (Spectator) key.attachment();
+        ByteBuffer bytes;
+        while ((bytes = spectator.next()) != null) {
+            channel.write(bytes);
+            if (bytes.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void disconnect(SelectionKey key) {
+        var spectator = (Spectator) key.attachment();
+        if (spectator != null && spectator.game != null) {
+            var watching = spectators.get(spectator.game);
+            watching.remove(key);
+            if (watching.isEmpty())
+                spectators.remove(spectator.game);
+        }
+
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // The connection is gone either way
+        }
+    }
+
+    private void shutdown() {
+        for (var key : selector.keys()) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // The connection is gone either way
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Nothing left to clean up
+        }
+    }
+
+    /**
+     * Stops serving. The thread running the server closes all connections before it returns.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class Published {
+
+        private final String game;
+        private final ByteBuffer frame;
+        private final boolean last;
+
+        private Published(String game, ByteBuffer frame, boolean last) {
+            this.game = game;
+            this.frame = frame;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Serves a game played by the greedy bot, one turn per second, as {@code /games/demo}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4712;
+        try (var server = new SpectatorServer(new InetSocketAddress(port))) {
+            var serverThread = new Thread(server, "spectator-server");
+            serverThread.start();
+            System.out.println("Streaming http://localhost:" + server.getPort() + GAMES_PATH + "demo");
+
+            var strategy = new GreedyStrategy();
+            while (serverThread.isAlive()) {
+                var gameController = new GameController();
+                Simulator.playGame(gameController, game -> {
+                    server.publish("demo", game);
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    strategy.playTurn(game);
+                });
+                server.publish("demo", gameController);
+            }
+        }
+    }
+}
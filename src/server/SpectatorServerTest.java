@@ -0,0 +1,149 @@
+package server;
+
+import bot.GreedyStrategy;
+import main.GameController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import sim.Simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class SpectatorServerTest {
+
+    private SpectatorServer server;
+    private Thread serverThread;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new SpectatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverThread = new Thread(server, "spectator-server");
+        serverThread.start();
+    }
+
+    @After
+    public void stopServer() throws InterruptedException {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    public void testSpectatorsReceiveSharedEvents() throws IOException {
+        var gameController = new GameController(3L);
+        server.publish("one", gameController.getGameState());
+
+        var sockets = new ArrayList<Socket>();
+        var readers = new ArrayList<BufferedReader>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                sockets.add(socket);
+                socket.getOutputStream().write("GET /games/one HTTP/1.1\r\nHost: test\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                readers.add(reader);
+
+                assertEquals("HTTP/1.1 200 OK", reader.readLine());
+                while (!reader.readLine().isEmpty()) {
+                    // Skip the headers
+                }
+                assertEquals("id: 0", reader.readLine());
+            }
+
+            new GreedyStrategy().playTurn(gameController);
+            var state = gameController.getGameState();
+            server.publish("one", state);
+            for (var reader : readers) {
+                skipEvent(reader);
+                assertEquals("id: " + state.getVersion(), reader.readLine());
+                assertEquals("event: state", reader.readLine());
+                assertTrue(reader.readLine().startsWith("data: {\"version\":" + state.getVersion() + ",\"tops\":["));
+                assertEquals("", reader.readLine());
+            }
+        } finally {
+            for (var socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void testEndedGameIsForgotten() throws IOException {
+        var gameController = new GameController(3L);
+        server.publish("two", gameController);
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            var reader = watch(socket, "two");
+            assertEquals("id: 0", reader.readLine());
+            skipEvent(reader);
+
+            Simulator.playGame(gameController, new GreedyStrategy());
+            server.publish("two", gameController);
+            assertEquals("id: " + gameController.getGameState().getVersion(), reader.readLine());
+            assertEquals("event: state", reader.readLine());
+            assertTrue(reader.readLine().endsWith(",\"outcome\":\"" + (gameController.gameIsWon() ? "won" : "lost") + "\"}"));
+        }
+
+        // A new spectator does not get the last state of the ended game, only the next game
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            var reader = watch(socket, "two");
+            var next = new GameController(4L);
+            new GreedyStrategy().playTurn(next);
+            server.publish("two", next);
+            assertEquals("id: " + next.getGameState().getVersion(), reader.readLine());
+        }
+    }
+
+    @Test
+    public void testUnknownPathIsRejected() throws IOException {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write("GET /other HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            assertEquals("HTTP/1.1 404 Not Found", reader.readLine());
+        }
+    }
+
+    @Test
+    public void testSlowSpectatorKeepsLatestFrame() {
+        var spectator = new Spectator(16, 4);
+        for (int i = 0; i < 10; i++) {
+            spectator.offer(ByteBuffer.wrap(new byte[]{(byte) i}).asReadOnlyBuffer());
+        }
+
+        var last = 0;
+        ByteBuffer next;
+        while ((next = spectator.next()) != null) {
+            last = next.get();
+        }
+        assertEquals(9, last);
+        assertEquals(8, spectator.dropped);
+    }
+
+    /**
+     * Requests the events of a game and skips the response headers.
+     */
+    private static BufferedReader watch(Socket socket, String game) throws IOException {
+        socket.getOutputStream().write(("GET /games/" + game + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        assertEquals("HTTP/1.1 200 OK", reader.readLine());
+        skipEvent(reader);
+        return reader;
+    }
+
+    /**
+     * Skips the rest of the event that was already started.
+     */
+    private static void skipEvent(BufferedReader reader) throws IOException {
+        while (!reader.readLine().isEmpty()) {
+            // Skip event lines
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package sim;
+
+import core.CardStack;
+import core.Deck;
+import core.Move;
+import core.PackedGame;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays many single player games in lockstep, e.g. to train a learned player. The games are stored as
+ * struct of arrays: every part of a game, like the hand or the stack tops, is one primitive array indexed by the game.
+ * <p>
+ * Actions are encoded by {@link Move}, so an action index is lower than {@link Move#TABLE_SIZE}.
+ * Every step writes the observations, rewards, done flags and legal actions into arrays that are allocated once,
+ * stepping does not allocate. With a pool the games are stepped in chunks spread over its threads.
+ * <p>
+ * Each played card is rewarded with 1, so the rewards of a game add up to the amount of played cards.
+ * An illegal action ends the game with a reward of -1. A game that is done stays done until it is reset.
+ */
+public class BatchEnvironment {
+
+    public static final int HAND_OFFSET = 0;
+    public static final int TOPS_OFFSET = 100;
+    public static final int DECK_OFFSET = 104;
+    public static final int PLAYED_OFFSET = 105;
+    /**
+     * The observation of a game: one entry per card value that is 1 if the card is in the hand,
+     * the four stack tops, the remaining deck and whether the minimum amount of cards is played, all scaled to 0 - 1.
+     */
+    public static final int OBSERVATION_SIZE = 106;
+    /**
+     * The legal actions of a game are a bit set of Move codes stored in this many longs.
+     */
+    public static final int ACTION_WORDS = (Move.TABLE_SIZE + 63) / 64;
+    public static final float ILLEGAL_ACTION_REWARD = -1;
+
+    private static final int DECK_SIZE = 97;
+    private static final int INITIAL_TOPS = PackedGame.packTops(new int[]{1, 1, 99, 99});
+    private static final int GAMES_PER_TASK = 256;
+
+    private final int games;
+    private final long[] handLow;
+    private final long[] handHigh;
+    private final int[] tops;
+    private final byte[] decks;
+    private final int[] deckIndex;
+    private final int[] cardsPlayed;
+
+    private final float[] observations;
+    private final float[] rewards;
+    private final boolean[] done;
+    private final long[] legalActions;
+
+    private final ForkJoinPool pool;
+    private final Chunk[] chunks;
+    private final RecursiveAction stepAll;
+    private int[] pendingActions;
+
+    /**
+     * Creates an environment that steps all games on the calling thread.
+     *
+     * @param games The amount of games
+     */
+    public BatchEnvironment(int games) {
+        this(games, null);
+    }
+
+    /**
+     * Creates an environment. The games have to be reset before the first step.
+     *
+     * @param games The amount of games
+     * @param pool  The pool the games are stepped on, null to step them on the calling thread
+     */
+    public BatchEnvironment(int games, ForkJoinPool pool) {
+        this.games = games;
+        this.handLow = new long[games];
+        this.handHigh = new long[games];
+        this.tops = new int[games];
+        this.decks = new byte[games * DECK_SIZE];
+        this.deckIndex = new int[games];
+        this.cardsPlayed = new int[games];
+        this.observations = new float[games * OBSERVATION_SIZE];
+        this.rewards = new float[games];
+        this.done = new boolean[games];
+        this.legalActions = new long[games * ACTION_WORDS];
+        this.pool = pool;
+
+        int tasks = (games + GAMES_PER_TASK - 1) / GAMES_PER_TASK;
+        this.chunks = new Chunk[tasks];
+        for (int i = 0; i < tasks; i++) {
+            chunks[i] = new Chunk(i * GAMES_PER_TASK, Math.min(games, (i + 1) * GAMES_PER_TASK));
+        }
+        this.stepAll = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        };
+    }
+
+    /**
+     * Deals a new game for every seed. The game with the same seed in a GameController has the same deck.
+     *
+     * @param seeds One seed per game
+     */
+    public void reset(long[] seeds) {
+        if (seeds.length != games)
+            throw new IllegalArgumentException("Expected " + games + " seeds, got " + seeds.length);
+        for (int game = 0; game < games; game++) {
+            reset(game, seeds[game]);
+        }
+    }
+
+    /**
+     * Deals a new game in one slot, e.g. after it is done.
+     *
+     * @param game The number of the game
+     * @param seed The seed of the deck
+     */
+    public void reset(int game, long seed) {
+        Deck.shuffle(seed, decks, game * DECK_SIZE);
+        handLow[game] = 0;
+        handHigh[game] = 0;
+        tops[game] = INITIAL_TOPS;
+        deckIndex[game] = 0;
+        cardsPlayed[game] = 0;
+        draw(game);
+        rewards[game] = 0;
+        done[game] = false;
+        finishStep(game);
+    }
+
+    /**
+     * Applies one action to every game.
+     *
+     * @param actionIndices One action per game encoded by {@link Move}, the action of a done game is ignored
+     */
+    public void step(int[] actionIndices) {
+        if (actionIndices.length != games)
+            throw new IllegalArgumentException("Expected " + games + " actions, got " + actionIndices.length);
+
+        if (pool == null || chunks.length == 1) {
+            step(actionIndices, 0, games);
+            return;
+        }
+
+        pendingActions = actionIndices;
+        for (var chunk : chunks) {
+            chunk.reinitialize();
+        }
+        stepAll.reinitialize();
+        pool.invoke(stepAll);
+        pendingActions = null;
+    }
+
+    private void step(int[] actionIndices, int from, int to) {
+        for (int game = from; game < to; game++) {
+            if (done[game]) {
+                rewards[game] = 0;
+                continue;
+            }
+            rewards[game] = apply(game, actionIndices[game]);
+            finishStep(game);
+        }
+    }
+
+    private float apply(int game, int action) {
+        if (!isLegal(game, action)) {
+            done[game] = true;
+            return ILLEGAL_ACTION_REWARD;
+        }
+
+        if (Move.isStop(action)) {
+            if (cardsPlayed[game] >= PackedGame.MINIMUM_CARDS_PER_TURN) {
+                draw(game);
+                cardsPlayed[game] = 0;
+            }
+            return 0;
+        }
+
+        int card = Move.card(action);
+        if (card < 64)
+            handLow[game] &= ~(1L << card);
+        else
+            handHigh[game] &= ~(1L << (card - 64));
+        tops[game] = PackedGame.withTop(tops[game], Move.stack(action), card);
+        cardsPlayed[game]++;
+        return 1;
+    }
+
+    private boolean isLegal(int game, int action) {
+        if (action < 0 || action >= Move.TABLE_SIZE)
+            return false;
+        int word = game * ACTION_WORDS + (action >>> 6);
+        return (legalActions[word] & (1L << action)) != 0;
+    }
+
+    private void draw(int game) {
+        int base = game * DECK_SIZE;
+        int size = Long.bitCount(handLow[game]) + Long.bitCount(handHigh[game]);
+        while (size < PackedGame.HAND_SIZE && deckIndex[game] < DECK_SIZE) {
+            int card = decks[base + deckIndex[game]++];
+            if (card < 64)
+                handLow[game] |= 1L << card;
+            else
+                handHigh[game] |= 1L << (card - 64);
+            size++;
+        }
+    }
+
+    /**
+     * Writes the legal actions and the observation of a game and decides whether it is over.
+     */
+    private void finishStep(int game) {
+        int actions = game * ACTION_WORDS;
+        for (int i = 0; i < ACTION_WORDS; i++) {
+            legalActions[actions + i] = 0;
+        }
+
+        int observation = game * OBSERVATION_SIZE;
+        for (int card = 0; card < TOPS_OFFSET; card++) {
+            observations[observation + HAND_OFFSET + card] = 0;
+        }
+
+        boolean canMove = false;
+        int packedTops = tops[game];
+        for (int word = 0; word < 2; word++) {
+            long bits = word == 0 ? handLow[game] : handHigh[game];
+            while (bits != 0) {
+                int card = word * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                observations[observation + HAND_OFFSET + card] = 1;
+
+                for (int stack = 1; stack <= PackedGame.STACKS; stack++) {
+                    int top = PackedGame.top(packedTops, stack);
+                    if (CardStack.canPush(PackedGame.direction(stack), top, card)) {
+                        int move = Move.play(card, stack);
+                        legalActions[actions + (move >>> 6)] |= 1L << move;
+                        canMove = true;
+                    }
+                }
+            }
+        }
+        if (cardsPlayed[game] >= PackedGame.MINIMUM_CARDS_PER_TURN || !canMove)
+            legalActions[actions] |= 1L << Move.STOP;
+
+        for (int stack = 1; stack <= PackedGame.STACKS; stack++) {
+            observations[observation + TOPS_OFFSET + stack - 1] = PackedGame.top(packedTops, stack) / 100f;
+        }
+        observations[observation + DECK_OFFSET] = (DECK_SIZE - deckIndex[game]) / (float) DECK_SIZE;
+        observations[observation + PLAYED_OFFSET] = cardsPlayed[game] >= PackedGame.MINIMUM_CARDS_PER_TURN ? 1 : 0;
+
+        boolean won = (handLow[game] | handHigh[game]) == 0 && deckIndex[game] == DECK_SIZE;
+        boolean lost = !won && cardsPlayed[game] < PackedGame.MINIMUM_CARDS_PER_TURN && !canMove;
+        if (won || lost)
+            done[game] = true;
+    }
+
+    public int size() {
+        return games;
+    }
+
+    /**
+     * Provides the observations of all games, {@link #OBSERVATION_SIZE} values per game.
+     * The array is overwritten by every step.
+     *
+     * @return The observations
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Provides the rewards of the last step, one per game. The array is overwritten by every step.
+     *
+     * @return The rewards
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * Provides whether each game is over. The array is overwritten by every step.
+     *
+     * @return The done flags
+     */
+    public boolean[] getDone() {
+        return done;
+    }
+
+    /**
+     * Provides the legal actions of all games as bit sets of Move codes, {@link #ACTION_WORDS} longs per game.
+     * Bit m of a game is stored in bit m % 64 of its long m / 64. The array is overwritten by every step.
+     *
+     * @return The legal actions
+     */
+    public long[] getLegalActions() {
+        return legalActions;
+    }
+
+    /**
+     * Returns the value of the top card of a stack of a game.
+     *
+     * @param game  The number of the game
+     * @param stack The number of the stack (1 - 4)
+     * @return The value of the top card
+     */
+    public int getTop(int game, int stack) {
+        return PackedGame.top(tops[game], stack);
+    }
+
+    /**
+     * Returns the amount of cards of a game that have not been played yet.
+     *
+     * @param game The number of the game
+     * @return The amount of cards in the hand and the deck
+     */
+    public int cardsLeft(int game) {
+        return Long.bitCount(handLow[game]) + Long.bitCount(handHigh[game]) + DECK_SIZE - deckIndex[game];
+    }
+
+    private class Chunk extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+
+        private Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            step(pendingActions, from, to);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package sim;
+
+import core.Move;
+import core.PlayResult;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BatchEnvironmentTest {
+
+    private static final int GAMES = 600;
+
+    @Test
+    public void testBatchMatchesGameController() throws InvalidActionException {
+        var pool = new ForkJoinPool(2);
+        try {
+            var environment = new BatchEnvironment(GAMES, pool);
+            var controllers = new GameController[GAMES];
+            var seeds = new long[GAMES];
+            for (int game = 0; game < GAMES; game++) {
+                seeds[game] = 1000 + game;
+                controllers[game] = new GameController(seeds[game]);
+            }
+            environment.reset(seeds);
+
+            var actions = new int[GAMES];
+            var played = new int[GAMES];
+            boolean running = true;
+            while (running) {
+                running = false;
+                for (int game = 0; game < GAMES; game++) {
+                    if (environment.getDone()[game])
+                        continue;
+                    running = true;
+                    actions[game] = chooseAction(environment, game);
+                    mirror(controllers[game], actions[game]);
+                }
+                environment.step(actions);
+
+                for (int game = 0; game < GAMES; game++) {
+                    played[game] += (int) environment.getRewards()[game];
+                    assertEquals(controllers[game].cardsLeft(), environment.cardsLeft(game));
+                    for (int stack = 1; stack <= 4; stack++) {
+                        assertEquals(controllers[game].getTopValue(stack), environment.getTop(game, stack));
+                    }
+                }
+            }
+
+            for (int game = 0; game < GAMES; game++) {
+                assertEquals(97 - environment.cardsLeft(game), played[game]);
+                var result = controllers[game].endTurn();
+                assertTrue(result == ActionResult.GAME_WON || result == ActionResult.GAME_LOST);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIllegalActionEndsGame() {
+        var environment = new BatchEnvironment(1);
+        environment.reset(new long[]{7L});
+
+        environment.step(new int[]{Move.STOP});
+        assertTrue(environment.getDone()[0]);
+        assertEquals(BatchEnvironment.ILLEGAL_ACTION_REWARD, environment.getRewards()[0], 0);
+
+        environment.reset(0, 7L);
+        assertFalse(environment.getDone()[0]);
+        assertEquals(97, environment.cardsLeft(0));
+    }
+
+    /**
+     * Plays the lowest legal card until two cards are played, then ends the turn.
+     */
+    private static int chooseAction(BatchEnvironment environment, int game) {
+        var legal = environment.getLegalActions();
+        boolean canStop = (legal[game * BatchEnvironment.ACTION_WORDS] & 1L) != 0;
+        var observation = environment.getObservations();
+        if (canStop && observation[game * BatchEnvironment.OBSERVATION_SIZE + BatchEnvironment.PLAYED_OFFSET] == 1)
+            return Move.STOP;
+
+        for (int move = 1; move < Move.TABLE_SIZE; move++) {
+            if ((legal[game * BatchEnvironment.ACTION_WORDS + (move >>> 6)] & (1L << move)) != 0)
+                return move;
+        }
+        return Move.STOP;
+    }
+
+    private static void mirror(GameController gameController, int action) throws InvalidActionException {
+        if (Move.isStop(action)) {
+            if (gameController.getCardsPlayed() >= 2)
+                gameController.endTurn();
+            return;
+        }
+        assertEquals(PlayResult.OK, gameController.tryPlay(Move.card(action), Move.stack(action)));
+    }
+}
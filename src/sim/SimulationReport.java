@@ -0,0 +1,119 @@
+package sim;
+
+import core.actions.ActionResult;
+
+/**
+ * Aggregated outcome of a batch of headless games. Instances are filled by a single worker
+ * and merged afterwards, so no synchronization is needed while recording.
+ */
+public class SimulationReport {
+
+    private static final int MAX_CARDS_LEFT = 98;
+
+    private final long[] cardsLeftHistogram = new long[MAX_CARDS_LEFT + 1];
+    private long games;
+    private long wins;
+    private long losses;
+    private long totalCardsLeft;
+    private long masterSeed;
+    private long elapsedNanos;
+
+    /**
+     * Records the outcome of a single game.
+     *
+     * @param result    The final result of the game, either GAME_WON or GAME_LOST
+     * @param cardsLeft The amount of cards left in the hand and the deck
+     */
+    public void record(ActionResult result, int cardsLeft) {
+        games++;
+        if (result == ActionResult.GAME_WON)
+            wins++;
+        else
+            losses++;
+
+        totalCardsLeft += cardsLeft;
+        cardsLeftHistogram[cardsLeft]++;
+    }
+
+    /**
+     * Adds all recorded games of the other report to this one.
+     *
+     * @param other The report to merge into this one
+     * @return This report
+     */
+    public SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        totalCardsLeft += other.totalCardsLeft;
+        for (int i = 0; i < cardsLeftHistogram.length; i++) {
+            cardsLeftHistogram[i] += other.cardsLeftHistogram[i];
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void setMasterSeed(long masterSeed) {
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Returns the seed the deals were derived from. Running the simulation again with this seed plays the same deals.
+     *
+     * @return The master seed
+     */
+    public long getMasterSeed() {
+        return masterSeed;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getMeanCardsLeft() {
+        return games == 0 ? 0 : (double) totalCardsLeft / games;
+    }
+
+    /**
+     * Returns how many games ended with the given amount of cards left.
+     *
+     * @param cardsLeft The amount of cards left in hand and deck
+     * @return The amount of games
+     */
+    public long getGamesWithCardsLeft(int cardsLeft) {
+        return cardsLeftHistogram[cardsLeft];
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Master seed: " + masterSeed + "\n"
+                + "Games: " + games + "\n"
+                + "Won: " + wins + " (" + String.format("%.2f", getWinRate() * 100) + "%)\n"
+                + "Lost: " + losses + "\n"
+                + "Mean cards left: " + String.format("%.2f", getMeanCardsLeft()) + "\n"
+                + "Throughput: " + String.format("%.0f", getGamesPerSecond()) + " games/sec\n";
+    }
+}
@@ -0,0 +1,149 @@
+package sim;
+
+import bot.GreedyStrategy;
+import bot.Strategy;
+import core.DealStream;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs many games without any user interface. The games are split up into chunks which are distributed
+ * over a fork join pool, so idle workers steal work from busy ones.
+ * Nothing on the path of a single game reads from System.in, writes to System.out or builds strings.
+ * The deal of every game is derived from a master seed, so a simulation can be repeated exactly.
+ */
+public class Simulator {
+
+    private static final int GAMES_PER_TASK = 64;
+
+    private final Supplier<? extends Strategy> strategyFactory;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a simulator that uses the common fork join pool, i.e. all available cores.
+     *
+     * @param strategyFactory Creates one strategy per worker task. Strategies are never shared between threads.
+     */
+    public Simulator(Supplier<? extends Strategy> strategyFactory) {
+        this(strategyFactory, ForkJoinPool.commonPool());
+    }
+
+    public Simulator(Supplier<? extends Strategy> strategyFactory, ForkJoinPool pool) {
+        this.strategyFactory = strategyFactory;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays the given amount of games and aggregates their outcome. The master seed is drawn at random
+     * and recorded in the report, so the simulation can be repeated.
+     *
+     * @param games The amount of games to play
+     * @return The aggregated report including the throughput
+     */
+    public SimulationReport run(int games) {
+        return run(games, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Plays the given amount of games with deals derived from the master seed.
+     *
+     * @param games      The amount of games to play
+     * @param masterSeed The seed the deals are derived from, see {@link DealStream#seedFor(long, long)}
+     * @return The aggregated report including the throughput
+     */
+    public SimulationReport run(int games, long masterSeed) {
+        long start = System.nanoTime();
+        var report = pool.invoke(new SimulationTask(masterSeed, 0, games));
+        report.setElapsedNanos(System.nanoTime() - start);
+        report.setMasterSeed(masterSeed);
+        return report;
+    }
+
+    /**
+     * Plays a single game until it is either won or lost.
+     *
+     * @param gameController The game to play
+     * @param strategy       The strategy making the moves
+     * @return GAME_WON or GAME_LOST. A strategy that tries to end its turn illegally loses the game.
+     */
+    public static ActionResult playGame(GameController gameController, Strategy strategy) {
+        while (true) {
+            strategy.playTurn(gameController);
+            try {
+                var result = gameController.endTurn();
+                if (result != ActionResult.TURN_END)
+                    return result;
+            } catch (InvalidActionException e) {
+                return ActionResult.GAME_LOST;
+            }
+        }
+    }
+
+    private class SimulationTask extends RecursiveTask<SimulationReport> {
+
+        private final long masterSeed;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(long masterSeed, int from, int to) {
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (to - from <= GAMES_PER_TASK)
+                return playGames();
+
+            int middle = (from + to) >>> 1;
+            var left = new SimulationTask(masterSeed, from, middle);
+            left.fork();
+            var right = new SimulationTask(masterSeed, middle, to).compute();
+            return left.join().merge(right);
+        }
+
+        private SimulationReport playGames() {
+            var report = new SimulationReport();
+            var strategy = strategyFactory.get();
+            try {
+                for (int i = from; i < to; i++) {
+                    var gameController = new GameController(DealStream.seedFor(masterSeed, i));
+                    var result = playGame(gameController, strategy);
+                    report.record(result, gameController.cardsLeft());
+                }
+            } finally {
+                close(strategy);
+            }
+            return report;
+        }
+    }
+
+    /**
+     * Releases the resources of a strategy that is not used anymore, e.g. the threads of a searching strategy.
+     *
+     * @param strategy The strategy, only closed if it is AutoCloseable
+     */
+    static void close(Strategy strategy) {
+        if (!(strategy instanceof AutoCloseable))
+            return;
+        try {
+            ((AutoCloseable) strategy).close();
+        } catch (Exception e) {
+            // The strategy is not used anymore
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        var simulator = new Simulator(GreedyStrategy::new);
+        var report = args.length > 1 ? simulator.run(games, Long.parseLong(args[1])) : simulator.run(games);
+        System.out.print(report);
+    }
+}
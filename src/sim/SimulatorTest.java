@@ -0,0 +1,127 @@
+package sim;
+
+import bot.GreedyStrategy;
+import bot.Strategy;
+import core.actions.ActionResult;
+import main.GameController;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SimulatorTest {
+
+    @Test
+    public void testEveryGameIsCounted() {
+        var pool = new ForkJoinPool(3);
+        try {
+            // More games than one task plays, so the reports of several tasks are merged
+            var report = new Simulator(GreedyStrategy::new, pool).run(300);
+
+            assertEquals(300, report.getGames());
+            assertEquals(300, report.getWins() + report.getLosses());
+            assertEquals(report.getWins(), report.getGamesWithCardsLeft(0));
+            long games = 0;
+            long cardsLeft = 0;
+            for (int left = 0; left <= 98; left++) {
+                games += report.getGamesWithCardsLeft(left);
+                cardsLeft += left * report.getGamesWithCardsLeft(left);
+            }
+            assertEquals(300, games);
+            assertEquals(cardsLeft / 300.0, report.getMeanCardsLeft(), 1e-9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPlayedGameIsOver() {
+        for (int i = 0; i < 20; i++) {
+            var gameController = new GameController();
+            var result = Simulator.playGame(gameController, new GreedyStrategy());
+
+            assertTrue(gameController.gameIsWon() || gameController.gameIsLost());
+            assertEquals(result == ActionResult.GAME_WON, gameController.gameIsWon());
+            assertEquals(result == ActionResult.GAME_WON, gameController.cardsLeft() == 0);
+        }
+    }
+
+    @Test
+    public void testClosesEveryStrategy() {
+        var created = new AtomicInteger();
+        var closed = new AtomicInteger();
+        var pool = new ForkJoinPool(2);
+        try {
+            new Simulator(() -> {
+                created.incrementAndGet();
+                return new ClosingStrategy(closed);
+            }, pool).run(500, 1L);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(created.get() > 1);
+        assertEquals(created.get(), closed.get());
+    }
+
+    @Test
+    public void testSameSeedGivesSameResultsOnAnyPool() {
+        var single = new ForkJoinPool(1);
+        var several = new ForkJoinPool(3);
+        try {
+            // More games than one task plays, so the games are split differently on both pools
+            var first = new Simulator(GreedyStrategy::new, single).run(300, 17L);
+            var second = new Simulator(GreedyStrategy::new, several).run(300, 17L);
+            var other = new Simulator(GreedyStrategy::new, several).run(300, 18L);
+
+            assertEquals(300, first.getGames());
+            assertEquals(first.getWins(), second.getWins());
+            assertEquals(first.getMeanCardsLeft(), second.getMeanCardsLeft(), 0.0);
+            boolean sameHistogram = true;
+            for (int cardsLeft = 0; cardsLeft <= 98; cardsLeft++) {
+                assertEquals(first.getGamesWithCardsLeft(cardsLeft), second.getGamesWithCardsLeft(cardsLeft));
+                sameHistogram &= first.getGamesWithCardsLeft(cardsLeft) == other.getGamesWithCardsLeft(cardsLeft);
+            }
+            assertFalse(sameHistogram);
+        } finally {
+            single.shutdown();
+            several.shutdown();
+        }
+    }
+
+    @Test
+    public void testRandomRunCanBeRepeated() {
+        var simulator = new Simulator(GreedyStrategy::new);
+        var first = simulator.run(200);
+        assertTrue(first.toString().startsWith("Master seed: " + first.getMasterSeed() + "\n"));
+
+        var repeated = simulator.run(200, first.getMasterSeed());
+        assertEquals(first.getMasterSeed(), repeated.getMasterSeed());
+        assertEquals(first.getWins(), repeated.getWins());
+        for (int cardsLeft = 0; cardsLeft <= 98; cardsLeft++) {
+            assertEquals(first.getGamesWithCardsLeft(cardsLeft), repeated.getGamesWithCardsLeft(cardsLeft));
+        }
+    }
+
+    private static class ClosingStrategy implements Strategy, AutoCloseable {
+
+        private final Strategy greedy = new GreedyStrategy();
+        private final AtomicInteger closed;
+
+        private ClosingStrategy(AtomicInteger closed) {
+            this.closed = closed;
+        }
+
+        @Override
+        public void playTurn(GameController gameController) {
+            greedy.playTurn(gameController);
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
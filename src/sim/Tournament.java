@@ -0,0 +1,166 @@
+package sim;
+
+import bot.GreedyStrategy;
+import bot.MctsStrategy;
+import bot.Strategy;
+import core.DealStream;
+import core.actions.ActionResult;
+import main.GameController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Compares strategies by letting each of them play the same deals. The deals are played in rounds,
+ * every round is spread over a fork join pool like the games of the {@link Simulator}.
+ * After every round the results so far are reported, and the tournament stops as soon as the
+ * leading strategy is significantly better than all others.
+ * <p>
+ * Looking at the results after every round makes a chance result more likely than a single test would,
+ * so the default significance level is stricter than the usual 95 % and a minimum amount of deals is played.
+ */
+public class Tournament {
+
+    private static final int GAMES_PER_TASK = 16;
+    private static final int DEFAULT_ROUND_GAMES = 512;
+    private static final int DEFAULT_MIN_GAMES = 1024;
+    private static final double DEFAULT_STOP_Z = 3.0;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<? extends Strategy>> factories = new ArrayList<>();
+    private final ForkJoinPool pool;
+    private final int roundGames;
+    private final int minGames;
+    private final double stopZ;
+
+    public Tournament() {
+        this(ForkJoinPool.commonPool(), DEFAULT_ROUND_GAMES, DEFAULT_MIN_GAMES, DEFAULT_STOP_Z);
+    }
+
+    /**
+     * Creates a tournament.
+     *
+     * @param pool       The pool the games are played on
+     * @param roundGames The amount of deals between two reports
+     * @param minGames   The amount of deals played before the tournament may stop early
+     * @param stopZ      The z score the leader needs against every other strategy to stop early
+     */
+    public Tournament(ForkJoinPool pool, int roundGames, int minGames, double stopZ) {
+        this.pool = pool;
+        this.roundGames = roundGames;
+        this.minGames = minGames;
+        this.stopZ = stopZ;
+    }
+
+    /**
+     * Registers a strategy.
+     *
+     * @param name            The name used in the report
+     * @param strategyFactory Creates one strategy per worker task. Strategies are never shared between threads.
+     */
+    public void addStrategy(String name, Supplier<? extends Strategy> strategyFactory) {
+        names.add(name);
+        factories.add(strategyFactory);
+    }
+
+    /**
+     * Plays deals until the tournament is decided or the maximum amount of deals is reached.
+     *
+     * @param maxGames   The maximum amount of deals
+     * @param masterSeed The seed the deals are derived from, see {@link DealStream#seedFor(long, long)}
+     * @param progress   Receives the results so far after every round
+     * @return The final results
+     */
+    public TournamentReport run(int maxGames, long masterSeed, Consumer<TournamentReport> progress) {
+        if (names.size() < 2)
+            throw new IllegalStateException("A tournament needs at least two strategies");
+
+        long start = System.nanoTime();
+        var report = new TournamentReport(names);
+        report.setMasterSeed(masterSeed);
+        for (int from = 0; from < maxGames; from += roundGames) {
+            int to = Math.min(maxGames, from + roundGames);
+            report.merge(pool.invoke(new TournamentTask(masterSeed, from, to)));
+            report.setElapsedNanos(System.nanoTime() - start);
+            progress.accept(report);
+
+            if (to >= minGames && report.isDecided(stopZ))
+                break;
+        }
+        return report;
+    }
+
+    private class TournamentTask extends RecursiveTask<TournamentReport> {
+
+        private final long masterSeed;
+        private final int from;
+        private final int to;
+
+        private TournamentTask(long masterSeed, int from, int to) {
+            this.masterSeed = masterSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentReport compute() {
+            if (to - from <= GAMES_PER_TASK)
+                return playDeals();
+
+            int middle = (from + to) >>> 1;
+            var left = new TournamentTask(masterSeed, from, middle);
+            left.fork();
+            var right = new TournamentTask(masterSeed, middle, to).compute();
+            return left.join().merge(right);
+        }
+
+        private TournamentReport playDeals() {
+            int strategies = names.size();
+            var report = new TournamentReport(names);
+            var players = new Strategy[strategies];
+            for (int i = 0; i < strategies; i++) {
+                players[i] = factories.get(i).get();
+            }
+
+            var results = new ActionResult[strategies];
+            var cardsLeft = new int[strategies];
+            var nanos = new long[strategies];
+            try {
+                for (int deal = from; deal < to; deal++) {
+                    long seed = DealStream.seedFor(masterSeed, deal);
+                    for (int i = 0; i < strategies; i++) {
+                        long start = System.nanoTime();
+                        var gameController = new GameController(seed);
+                        results[i] = Simulator.playGame(gameController, players[i]);
+                        nanos[i] = System.nanoTime() - start;
+                        cardsLeft[i] = gameController.cardsLeft();
+                    }
+                    report.record(results, cardsLeft, nanos);
+                }
+            } finally {
+                for (var player : players) {
+                    Simulator.close(player);
+                }
+            }
+            return report;
+        }
+    }
+
+    public static void main(String[] args) {
+        int maxGames = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        var tournament = new Tournament();
+        tournament.addStrategy("greedy", GreedyStrategy::new);
+        // Fewer rollouts than this play worse than greedy, over enough deals this many beat it
+        tournament.addStrategy("mcts", () -> new MctsStrategy(1, 1000, Duration.ofSeconds(1)));
+        // The seed is part of every report, so a tournament can be repeated by passing it
+        long masterSeed = args.length > 1 ? Long.parseLong(args[1]) : new SplittableRandom().nextLong();
+        var report = tournament.run(maxGames, masterSeed, System.out::println);
+        System.out.println(report.isDecided(DEFAULT_STOP_Z) ? "Decided, leader: " + report.getNames().get(report.getLeader()) : "Not decided");
+    }
+}
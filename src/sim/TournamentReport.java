@@ -0,0 +1,218 @@
+package sim;
+
+import core.actions.ActionResult;
+
+import java.util.List;
+
+/**
+ * Results of a tournament. Every strategy played the same deals, so strategies are compared by the
+ * difference of their cards left on each deal (paired design), which removes most of the luck of the deals.
+ * Instances are filled by a single worker and merged afterwards, like the {@link SimulationReport}.
+ */
+public class TournamentReport {
+
+    /**
+     * The z value of a two sided 95 % confidence interval.
+     */
+    private static final double Z_95 = 1.96;
+
+    private final List<String> names;
+    private final long[] wins;
+    private final long[] cardsLeft;
+    private final long[] cardsLeftSquares;
+    private final long[] nanos;
+    private final long[][] differences;
+    private final long[][] differenceSquares;
+    private long games;
+    private long masterSeed;
+    private long elapsedNanos;
+
+    public TournamentReport(List<String> names) {
+        int strategies = names.size();
+        this.names = List.copyOf(names);
+        this.wins = new long[strategies];
+        this.cardsLeft = new long[strategies];
+        this.cardsLeftSquares = new long[strategies];
+        this.nanos = new long[strategies];
+        this.differences = new long[strategies][strategies];
+        this.differenceSquares = new long[strategies][strategies];
+    }
+
+    /**
+     * Records the outcome of one deal for all strategies.
+     *
+     * @param results   The result of every strategy, GAME_WON or GAME_LOST
+     * @param left      The cards left of every strategy
+     * @param gameNanos The time every strategy needed for the deal
+     */
+    void record(ActionResult[] results, int[] left, long[] gameNanos) {
+        games++;
+        for (int i = 0; i < names.size(); i++) {
+            if (results[i] == ActionResult.GAME_WON)
+                wins[i]++;
+            cardsLeft[i] += left[i];
+            cardsLeftSquares[i] += (long) left[i] * left[i];
+            nanos[i] += gameNanos[i];
+            for (int j = 0; j < names.size(); j++) {
+                long difference = left[i] - left[j];
+                differences[i][j] += difference;
+                differenceSquares[i][j] += difference * difference;
+            }
+        }
+    }
+
+    TournamentReport merge(TournamentReport other) {
+        games += other.games;
+        for (int i = 0; i < names.size(); i++) {
+            wins[i] += other.wins[i];
+            cardsLeft[i] += other.cardsLeft[i];
+            cardsLeftSquares[i] += other.cardsLeftSquares[i];
+            nanos[i] += other.nanos[i];
+            for (int j = 0; j < names.size(); j++) {
+                differences[i][j] += other.differences[i][j];
+                differenceSquares[i][j] += other.differenceSquares[i][j];
+            }
+        }
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void setMasterSeed(long masterSeed) {
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Returns the seed the deals were derived from. Running the tournament again with this seed plays the same deals.
+     *
+     * @return The master seed
+     */
+    public long getMasterSeed() {
+        return masterSeed;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the amount of deals played, every strategy played each of them.
+     *
+     * @return The amount of deals
+     */
+    public long getGames() {
+        return games;
+    }
+
+    public double getWinRate(int strategy) {
+        return games == 0 ? 0 : (double) wins[strategy] / games;
+    }
+
+    /**
+     * Returns the half width of the 95 % confidence interval of the win rate.
+     *
+     * @param strategy The index of the strategy
+     * @return The margin of error
+     */
+    public double getWinRateMargin(int strategy) {
+        double rate = getWinRate(strategy);
+        return games == 0 ? 0 : Z_95 * Math.sqrt(rate * (1 - rate) / games);
+    }
+
+    public double getMeanCardsLeft(int strategy) {
+        return games == 0 ? 0 : (double) cardsLeft[strategy] / games;
+    }
+
+    /**
+     * Returns the half width of the 95 % confidence interval of the mean cards left.
+     *
+     * @param strategy The index of the strategy
+     * @return The margin of error
+     */
+    public double getCardsLeftMargin(int strategy) {
+        return Z_95 * standardError(cardsLeft[strategy], cardsLeftSquares[strategy]);
+    }
+
+    /**
+     * Returns how many games the strategy plays per second on a single core.
+     *
+     * @param strategy The index of the strategy
+     * @return The throughput of the strategy
+     */
+    public double getGamesPerSecond(int strategy) {
+        return nanos[strategy] == 0 ? 0 : games * 1_000_000_000.0 / nanos[strategy];
+    }
+
+    /**
+     * Tests whether the first strategy leaves fewer cards than the second one with a paired z test.
+     *
+     * @param first  The index of the first strategy
+     * @param second The index of the second strategy
+     * @return The z score, large values mean the first strategy is better
+     */
+    public double getPairedZ(int first, int second) {
+        double error = standardError(differences[first][second], differenceSquares[first][second]);
+        if (error == 0)
+            return 0;
+        return -(double) differences[first][second] / games / error;
+    }
+
+    /**
+     * Returns the strategy with the fewest mean cards left.
+     *
+     * @return The index of the leading strategy
+     */
+    public int getLeader() {
+        int leader = 0;
+        for (int i = 1; i < names.size(); i++) {
+            if (cardsLeft[i] < cardsLeft[leader])
+                leader = i;
+        }
+        return leader;
+    }
+
+    /**
+     * Checks whether the leader is better than every other strategy.
+     *
+     * @param z The z score every comparison with the leader needs to reach
+     * @return true if the tournament is decided
+     */
+    public boolean isDecided(double z) {
+        int leader = getLeader();
+        for (int i = 0; i < names.size(); i++) {
+            if (i != leader && getPairedZ(leader, i) < z)
+                return false;
+        }
+        return true;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private double standardError(long sum, long squares) {
+        if (games < 2)
+            return 0;
+        double mean = (double) sum / games;
+        double variance = ((double) squares - games * mean * mean) / (games - 1);
+        return Math.sqrt(Math.max(variance, 0) / games);
+    }
+
+    @Override
+    public String toString() {
+        var report = new StringBuilder("Deals: ").append(games)
+                .append(" (master seed ").append(masterSeed).append(")\n");
+        for (int i = 0; i < names.size(); i++) {
+            report.append(names.get(i)).append(": ")
+                    .append(String.format("won %.2f%% +- %.2f", getWinRate(i) * 100, getWinRateMargin(i) * 100))
+                    .append(String.format(", cards left %.2f +- %.2f", getMeanCardsLeft(i), getCardsLeftMargin(i)))
+                    .append(String.format(", %.0f games/sec", getGamesPerSecond(i)));
+            if (i != getLeader())
+                report.append(String.format(", z vs %s %.2f", names.get(getLeader()), getPairedZ(getLeader(), i)));
+            report.append('\n');
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package sim;
+
+import bot.GreedyStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void testStopsOnceDecided() {
+        var tournament = new Tournament(ForkJoinPool.commonPool(), 64, 128, 3.0);
+        tournament.addStrategy("greedy", GreedyStrategy::new);
+        // Never plays a card, so it loses every game right away
+        tournament.addStrategy("passive", () -> gameController -> {
+        });
+
+        var rounds = new ArrayList<Long>();
+        var report = tournament.run(100_000, 42L, partial -> rounds.add(partial.getGames()));
+
+        assertEquals(128, report.getGames());
+        assertEquals(42L, report.getMasterSeed());
+        assertTrue(report.toString().startsWith("Deals: 128 (master seed 42)\n"));
+        assertEquals(2, rounds.size());
+        assertEquals(0, report.getLeader());
+        assertTrue(report.isDecided(3.0));
+        assertEquals(97.0, report.getMeanCardsLeft(1), 0.0);
+    }
+}
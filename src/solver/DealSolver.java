@@ -0,0 +1,235 @@
+package solver;
+
+import core.CardStack;
+import core.Direction;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedGame;
+import core.Zobrist;
+import main.GameController;
+
+/**
+ * Decides whether a deal can still be won with perfect play. The solver knows the order of the deck,
+ * so it answers whether a game was lost by bad play or by bad luck.
+ * <p>
+ * The game tree is searched depth first on a {@link PackedGame} whose moves are taken back after each branch.
+ * Plays onto different stacks can be swapped freely, so within a turn the stacks are only played in
+ * ascending order. Positions containing a card that can never be played again are cut off right away.
+ * Positions that are proven to be lost are remembered in a {@link TranspositionTable},
+ * so transpositions are only searched once. Moves are ordered by the distance of the card to the
+ * stack top; moves going back by exactly 10 come first, since they gain room on the stack.
+ */
+public class DealSolver {
+
+    private static final long DEFAULT_TABLE_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_NODE_LIMIT = 200_000_000L;
+    private static final int MAX_DEPTH = 256;
+    private static final int BACKWARDS_SCORE = -10;
+    private static final int STOP_SCORE = 3;
+
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private final long nodeLimit;
+    private final MoveBuffer[] moves = new MoveBuffer[MAX_DEPTH];
+    private final int[][] scores = new int[MAX_DEPTH][MoveBuffer.MAX_MOVES];
+    private final int[] line = new int[MAX_DEPTH];
+
+    private PackedGame game;
+    private long nodes;
+    private int lineLength;
+    private boolean aborted;
+
+    public DealSolver() {
+        this(DEFAULT_TABLE_BYTES, DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * Creates a solver with bounded memory and time.
+     *
+     * @param tableBytes The memory budget of the transposition table in bytes
+     * @param nodeLimit  The amount of nodes after which the search gives up
+     */
+    public DealSolver(long tableBytes, long nodeLimit) {
+        this(tableBytes, nodeLimit, null);
+    }
+
+    /**
+     * Creates a solver with bounded memory and time that looks up lost endgames instead of searching them.
+     *
+     * @param tableBytes The memory budget of the transposition table in bytes
+     * @param nodeLimit  The amount of nodes after which the search gives up
+     * @param tablebase  The endgame results, may be null
+     */
+    public DealSolver(long tableBytes, long nodeLimit, Tablebase tablebase) {
+        this.table = new TranspositionTable(tableBytes);
+        this.tablebase = tablebase;
+        this.nodeLimit = nodeLimit;
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            moves[i] = new MoveBuffer();
+        }
+    }
+
+    /**
+     * Solves the game from its current position. The game itself is not modified.
+     *
+     * @param gameController The game to solve
+     * @return The outcome with perfect play
+     */
+    public SolverResult solve(GameController gameController) {
+        return solve(gameController.pack());
+    }
+
+    /**
+     * Solves the given position. The position is restored when the search is done.
+     *
+     * @param packedGame The position to solve
+     * @return The outcome with perfect play
+     */
+    public SolverResult solve(PackedGame packedGame) {
+        // The keys do not contain the order of the deck, so the losses of another deal are not valid here
+        if (table.getStored() > 0)
+            table.clear();
+        game = packedGame;
+        nodes = 0;
+        lineLength = 0;
+        aborted = false;
+
+        long start = System.nanoTime();
+        boolean won = search(0, 1);
+        long elapsed = System.nanoTime() - start;
+
+        SolverResult.Outcome outcome;
+        if (won)
+            outcome = SolverResult.Outcome.WIN;
+        else if (aborted)
+            outcome = SolverResult.Outcome.UNKNOWN;
+        else
+            outcome = SolverResult.Outcome.LOSS;
+
+        var winningLine = new int[won ? lineLength : 0];
+        System.arraycopy(line, 0, winningLine, 0, winningLine.length);
+        return new SolverResult(outcome, winningLine, nodes, elapsed);
+    }
+
+    /**
+     * Searches the current position.
+     *
+     * @param depth    The amount of moves made since the root
+     * @param minStack The lowest stack that may still be played on in this turn
+     * @return true if the position is won
+     */
+    private boolean search(int depth, int minStack) {
+        if (++nodes > nodeLimit) {
+            aborted = true;
+            return false;
+        }
+        if (game.isWon()) {
+            lineLength = depth;
+            return true;
+        }
+
+        if (game.hasDeadCard())
+            return false;
+        // Won endgames are still searched, since the winning line is needed
+        if (tablebase != null && tablebase.probe(game) == SolverResult.Outcome.LOSS)
+            return false;
+
+        long key = key(game, minStack);
+        if (table.contains(key))
+            return false;
+
+        long nodesBefore = nodes;
+        var buffer = moves[depth];
+        game.legalMoves(buffer);
+        orderMoves(buffer, scores[depth]);
+
+        for (int i = 0; i < buffer.size(); i++) {
+            int move = buffer.get(i);
+            line[depth] = move;
+
+            if (Move.isStop(move)) {
+                if (game.cardsPlayed() < PackedGame.MINIMUM_CARDS_PER_TURN)
+                    continue; // Ending the turn loses the game
+                int undo = game.endTurn();
+                boolean won = search(depth + 1, 1);
+                game.undoEndTurn(undo);
+                if (won)
+                    return true;
+            } else {
+                if (Move.stack(move) < minStack || isMirroredPlay(move, minStack))
+                    continue;
+                int previousTop = game.play(move);
+                boolean won = search(depth + 1, Move.stack(move));
+                game.undoPlay(move, previousTop);
+                if (won)
+                    return true;
+            }
+
+            if (aborted)
+                return false;
+        }
+
+        table.store(key, nodes - nodesBefore);
+        return false;
+    }
+
+    /**
+     * Playing on the second stack of a direction while both stacks of that direction have the same top
+     * leads to the same positions as playing on the first one.
+     */
+    private boolean isMirroredPlay(int move, int minStack) {
+        int stack = Move.stack(move);
+        return (stack == 2 || stack == 4) && minStack < stack && game.top(stack) == game.top(stack - 1);
+    }
+
+    /**
+     * Sorts the moves by their score, lowest first. The buffers are small, so insertion sort is used.
+     */
+    private void orderMoves(MoveBuffer buffer, int[] moveScores) {
+        int size = buffer.size();
+        for (int i = 0; i < size; i++) {
+            moveScores[i] = score(buffer.get(i));
+        }
+
+        for (int i = 1; i < size; i++) {
+            int score = moveScores[i];
+            int move = buffer.get(i);
+            int j = i - 1;
+            while (j >= 0 && moveScores[j] > score) {
+                moveScores[j + 1] = moveScores[j];
+                buffer.set(j + 1, buffer.get(j));
+                j--;
+            }
+            moveScores[j + 1] = score;
+            buffer.set(j + 1, move);
+        }
+    }
+
+    private int score(int move) {
+        if (Move.isStop(move))
+            return STOP_SCORE;
+
+        int stack = Move.stack(move);
+        int top = game.top(stack);
+        int card = Move.card(move);
+        boolean backwards = PackedGame.direction(stack) == Direction.UP ? card < top : card > top;
+        return backwards ? BACKWARDS_SCORE : CardStack.distance(top, card);
+    }
+
+    /**
+     * Hashes everything that decides the future of a position. The Zobrist hash of the game already treats
+     * the two stacks of each direction as interchangeable, they are only told apart if just the second one
+     * of them may be played on in this turn. Only whether the minimum amount of cards of the turn is played matters.
+     */
+    static long key(PackedGame game, int minStack) {
+        return game.positionHash() + Zobrist.minStack(minStack, minStack > 1 ? game.top(minStack - 1) : 0);
+    }
+
+    public static void main(String[] args) {
+        int deals = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        var solver = new DealSolver();
+        for (int i = 0; i < deals; i++) {
+            System.out.print(solver.solve(new GameController()));
+        }
+    }
+}
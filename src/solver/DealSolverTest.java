@@ -0,0 +1,161 @@
+package solver;
+
+import core.CardMask;
+import core.Move;
+import core.MoveBuffer;
+import core.PackedGame;
+import core.PlayResult;
+import core.actions.ActionResult;
+import core.exceptions.InvalidActionException;
+import main.GameController;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class DealSolverTest {
+
+    // The greedy strategy wins this deal, so it can be won
+    private static final long WINNABLE_SEED = 105L;
+
+    @Test
+    public void testWinningLineReplays() throws InvalidActionException {
+        var result = new DealSolver(1 << 20, 10_000_000).solve(new GameController(WINNABLE_SEED));
+        assertEquals(SolverResult.Outcome.WIN, result.getOutcome());
+
+        var gameController = new GameController(WINNABLE_SEED);
+        for (int move : result.getWinningLine()) {
+            if (Move.isStop(move))
+                assertEquals(ActionResult.TURN_END, gameController.endTurn());
+            else
+                assertEquals(PlayResult.OK, gameController.tryPlay(Move.card(move), Move.stack(move)));
+        }
+        assertEquals(ActionResult.GAME_WON, gameController.endTurn());
+    }
+
+    @Test
+    public void testDeadCardIsLoss() {
+        var hand = new CardMask();
+        hand.add(45);
+        hand.add(91);
+        var game = new PackedGame(hand, new int[]{60, 60, 40, 40}, new byte[]{55}, 0);
+
+        var result = new DealSolver(1 << 16, 1_000_000).solve(game);
+        assertEquals(SolverResult.Outcome.LOSS, result.getOutcome());
+        assertEquals(0, result.getWinningLine().length);
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() {
+        var solver = new DealSolver(1 << 16, Long.MAX_VALUE);
+        var random = new SplittableRandom(3L);
+        var moves = new MoveBuffer[64];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = new MoveBuffer();
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            var game = randomPosition(random);
+            boolean won = solver.solve(game.copy()).getOutcome() == SolverResult.Outcome.WIN;
+            assertEquals(canWin(game, moves, 0), won);
+        }
+    }
+
+    @Test
+    public void testReusedSolverForgetsOtherDeals() {
+        var hand = new CardMask();
+        for (int card : new int[]{42, 45, 48, 53, 64, 66, 67}) {
+            hand.add(card);
+        }
+        var tops = new int[]{68, 65, 37, 31};
+        // Both positions have the same hand, tops and deck size, so they have the same keys
+        var lost = new PackedGame(hand, tops, new byte[]{55, 52, 59, 58}, 0);
+        var won = new PackedGame(hand, tops, new byte[]{58, 59, 52, 55}, 0);
+
+        var solver = new DealSolver(1 << 16, Long.MAX_VALUE);
+        assertEquals(SolverResult.Outcome.LOSS, solver.solve(lost).getOutcome());
+        assertEquals(SolverResult.Outcome.WIN, solver.solve(won).getOutcome());
+    }
+
+    @Test
+    public void testTableKeepsTheHarderProof() {
+        var table = new TranspositionTable(2 * 12);
+        assertEquals(2, table.capacity());
+
+        table.store(0L, 5);
+        table.store(2L, 100);
+        assertTrue(table.contains(0L));
+        assertTrue(table.contains(2L));
+
+        table.store(4L, 50);
+        assertFalse(table.contains(0L));
+        assertTrue(table.contains(2L));
+        assertTrue(table.contains(4L));
+        assertEquals(1, table.getEvicted());
+
+        table.clear();
+        assertFalse(table.contains(2L));
+        assertEquals(0, table.getStored());
+    }
+
+    /**
+     * Tries every legal move without any pruning.
+     */
+    private static boolean canWin(PackedGame game, MoveBuffer[] moves, int depth) {
+        if (game.isWon())
+            return true;
+
+        var buffer = moves[depth];
+        game.legalMoves(buffer);
+        for (int i = 0; i < buffer.size(); i++) {
+            int move = buffer.get(i);
+            boolean won;
+            if (Move.isStop(move)) {
+                if (game.cardsPlayed() < PackedGame.MINIMUM_CARDS_PER_TURN)
+                    continue;
+                int undo = game.endTurn();
+                won = canWin(game, moves, depth + 1);
+                game.undoEndTurn(undo);
+            } else {
+                int previousTop = game.play(move);
+                won = canWin(game, moves, depth + 1);
+                game.undoPlay(move, previousTop);
+            }
+            if (won)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Creates a position with a few cards from a narrow range, so many moves are legal and cards are often 10 apart.
+     */
+    private static PackedGame randomPosition(SplittableRandom random) {
+        var used = new CardMask();
+        var tops = new int[4];
+        for (int stack = 0; stack < 4; stack++) {
+            tops[stack] = unusedCard(random, used);
+        }
+
+        var hand = new CardMask();
+        int handSize = 2 + random.nextInt(4);
+        for (int i = 0; i < handSize; i++) {
+            hand.add(unusedCard(random, used));
+        }
+        var deck = new byte[1 + random.nextInt(4)];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = (byte) unusedCard(random, used);
+        }
+        return new PackedGame(hand, tops, deck, 0);
+    }
+
+    private static int unusedCard(SplittableRandom random, CardMask used) {
+        int card;
+        do {
+            card = 30 + random.nextInt(40);
+        } while (used.contains(card));
+        used.add(card);
+        return card;
+    }
+}
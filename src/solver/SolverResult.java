@@ -0,0 +1,60 @@
+package solver;
+
+/**
+ * The outcome of solving a deal together with some statistics about the search.
+ */
+public class SolverResult {
+
+    public enum Outcome {
+        WIN,
+        LOSS,
+        /**
+         * The search was stopped by its node limit before the deal was solved.
+         */
+        UNKNOWN
+    }
+
+    private final Outcome outcome;
+    private final int[] winningLine;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    public SolverResult(Outcome outcome, int[] winningLine, long nodes, long elapsedNanos) {
+        this.outcome = outcome;
+        this.winningLine = winningLine;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns the moves, encoded by {@link core.Move}, that win the deal.
+     *
+     * @return The winning moves or an empty array if the deal is not won
+     */
+    public int[] getWinningLine() {
+        return winningLine.clone();
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Outcome: " + outcome + "\n"
+                + "Nodes: " + nodes + "\n"
+                + "Nodes/sec: " + String.format("%.0f", getNodesPerSecond()) + "\n";
+    }
+}
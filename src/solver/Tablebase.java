@@ -0,0 +1,162 @@
+package solver;
+
+import core.CardMask;
+import core.PackedGame;
+import main.GameController;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact results of endgames, looked up from a memory mapped file that is created by {@link TablebaseGenerator}.
+ * <p>
+ * Once the deck is empty, turns do not matter anymore: ending a turn draws nothing, so the game is won exactly
+ * if all hand cards can be played one after another. Whether that works only depends on the order of the
+ * hand cards and the stack tops and on which of them are exactly 10 apart, not on their actual values.
+ * So a position is stored by its pattern:
+ * <ul>
+ * <li>which pairs of hand cards are exactly 10 apart</li>
+ * <li>for every stack the amount of hand cards below its top (rank) and which hand card can be played
+ * backwards onto it (back index), if any</li>
+ * </ul>
+ * The two stacks of a direction are interchangeable, so each pair of stacks is stored unordered.
+ * Every pattern is one bit in the file, its index is computed from the pattern with a few operations.
+ */
+public class Tablebase {
+
+    static final int MAGIC = 0x54474542; // "TGEB"
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final MappedByteBuffer bits;
+    private final int maxCards;
+    private final long[] offsets;
+
+    /**
+     * Maps a tablebase file.
+     *
+     * @param file The file created by the generator
+     * @throws IOException If the file can not be read or is not a tablebase
+     */
+    public Tablebase(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bits = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (bits.getInt(0) != MAGIC)
+            throw new IOException("Not a tablebase: " + file);
+        maxCards = bits.getInt(Integer.BYTES);
+        offsets = offsets(maxCards);
+    }
+
+    public int getMaxCards() {
+        return maxCards;
+    }
+
+    /**
+     * Looks up the result of the game with perfect play.
+     *
+     * @param gameController The game
+     * @return WIN or LOSS, or UNKNOWN if the deck is not empty or too many cards are left
+     */
+    public SolverResult.Outcome probe(GameController gameController) {
+        return probe(gameController.pack());
+    }
+
+    /**
+     * Looks up the result of the position with perfect play.
+     *
+     * @param game The position
+     * @return WIN or LOSS, or UNKNOWN if the deck is not empty or too many cards are left
+     */
+    public SolverResult.Outcome probe(PackedGame game) {
+        var hand = game.hand();
+        int cards = hand.size();
+        if (game.deckRemaining() != 0 || cards > maxCards)
+            return SolverResult.Outcome.UNKNOWN;
+        if (cards == 0)
+            return SolverResult.Outcome.WIN;
+
+        long bit = offsets[cards] + index(game, hand, cards);
+        boolean won = (bits.get(HEADER_BYTES + (int) (bit >>> 3)) & (1 << (bit & 7))) != 0;
+        return won ? SolverResult.Outcome.WIN : SolverResult.Outcome.LOSS;
+    }
+
+    /**
+     * Computes the index of a position straight from the hand mask, so probing does not allocate.
+     */
+    private static long index(PackedGame game, CardMask hand, int cards) {
+        int pairs = 0;
+        for (int i = 0, card = hand.next(0); card != -1; i++, card = hand.next(card + 1)) {
+            if (hand.contains(card + 10))
+                pairs |= 1 << pairBit(i, hand.countBelow(card + 10));
+        }
+
+        return index(cards, pairs,
+                signature(hand, cards, game.top(1), -10), signature(hand, cards, game.top(2), -10),
+                signature(hand, cards, game.top(3), 10), signature(hand, cards, game.top(4), 10));
+    }
+
+    /**
+     * Combines the rank of a stack top and the index of the hand card that can be played backwards onto it.
+     */
+    private static int signature(CardMask hand, int cards, int top, int backwards) {
+        int back = hand.contains(top + backwards) ? hand.countBelow(top + backwards) : cards;
+        return hand.countBelow(top) * (cards + 1) + back;
+    }
+
+    /**
+     * Computes the position of a pattern among all patterns with the same amount of hand cards.
+     *
+     * @param cards The amount of hand cards
+     * @param pairs Bit {@link #pairBit(int, int)} is set if the hand cards i and j are exactly 10 apart
+     * @param up1   The signature of the first up stack: rank * (cards + 1) + back index, cards if there is none
+     * @param up2   The signature of the second up stack
+     * @param down1 The signature of the first down stack
+     * @param down2 The signature of the second down stack
+     * @return The index of the pattern
+     */
+    static long index(int cards, int pairs, int up1, int up2, int down1, int down2) {
+        long stackPairs = stackPairs(cards);
+        return ((long) pairs * stackPairs + unorderedPair(up1, up2)) * stackPairs + unorderedPair(down1, down2);
+    }
+
+    static int pairBit(int lower, int higher) {
+        return higher * (higher - 1) / 2 + lower;
+    }
+
+    private static long unorderedPair(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return (long) high * (high + 1) / 2 + low;
+    }
+
+    static int signatures(int cards) {
+        return (cards + 1) * (cards + 1);
+    }
+
+    private static long stackPairs(int cards) {
+        long signatures = signatures(cards);
+        return signatures * (signatures + 1) / 2;
+    }
+
+    /**
+     * Returns the amount of patterns with the given amount of hand cards.
+     */
+    static long patterns(int cards) {
+        long pairMasks = 1L << (cards * (cards - 1) / 2);
+        return pairMasks * stackPairs(cards) * stackPairs(cards);
+    }
+
+    /**
+     * Returns the bit offsets of the patterns of every amount of hand cards, each one starting at a whole byte.
+     */
+    static long[] offsets(int maxCards) {
+        var offsets = new long[maxCards + 2];
+        for (int cards = 1; cards <= maxCards; cards++) {
+            offsets[cards + 1] = offsets[cards] + (patterns(cards) + 7) / 8 * 8;
+        }
+        return offsets;
+    }
+}
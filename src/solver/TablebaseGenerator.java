@@ -0,0 +1,127 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates the file of a {@link Tablebase}. Every pattern is solved directly on its abstract form:
+ * hand card i is above hand card j exactly if i > j, and a stack top is either one of the hand cards played
+ * before or the original top described by its rank and back index. Patterns that can not occur in a real
+ * game are solved as well, they are just never looked up.
+ */
+public class TablebaseGenerator {
+
+    private static final int MAX_CARDS = 5;
+    private static final int STACKS = 4;
+
+    private int cards;
+    private int pairs;
+    private final int[] ranks = new int[STACKS];
+    private final int[] backs = new int[STACKS];
+
+    /**
+     * Solves all patterns and writes them to a file.
+     *
+     * @param file     The file to create
+     * @param maxCards The largest amount of hand cards to solve, 4 takes about a megabyte, 5 about 60 megabytes
+     * @throws IOException If the file can not be written
+     */
+    public void generate(Path file, int maxCards) throws IOException {
+        if (maxCards < 1 || maxCards > MAX_CARDS)
+            throw new IllegalArgumentException("The tablebase supports 1 - " + MAX_CARDS + " cards");
+
+        var offsets = Tablebase.offsets(maxCards);
+        long totalBytes = Tablebase.HEADER_BYTES + offsets[maxCards + 1] / 8;
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, totalBytes);
+            buffer.putInt(0, Tablebase.MAGIC);
+            buffer.putInt(Integer.BYTES, maxCards);
+            for (cards = 1; cards <= maxCards; cards++) {
+                generate(buffer, offsets[cards]);
+            }
+            buffer.force();
+        }
+    }
+
+    private void generate(ByteBuffer buffer, long offset) {
+        int signatures = Tablebase.signatures(cards);
+        for (pairs = 0; pairs < 1 << (cards * (cards - 1) / 2); pairs++) {
+            for (int up2 = 0; up2 < signatures; up2++) {
+                for (int up1 = 0; up1 <= up2; up1++) {
+                    for (int down2 = 0; down2 < signatures; down2++) {
+                        for (int down1 = 0; down1 <= down2; down1++) {
+                            setStack(0, up1);
+                            setStack(1, up2);
+                            setStack(2, down1);
+                            setStack(3, down2);
+                            if (!canWin((1 << cards) - 1, cards, cards, cards, cards))
+                                continue;
+
+                            long bit = offset + Tablebase.index(cards, pairs, up1, up2, down1, down2);
+                            int position = Tablebase.HEADER_BYTES + (int) (bit >>> 3);
+                            buffer.put(position, (byte) (buffer.get(position) | 1 << (bit & 7)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void setStack(int stack, int signature) {
+        ranks[stack] = signature / (cards + 1);
+        backs[stack] = signature % (cards + 1);
+    }
+
+    /**
+     * Searches the abstract position. A top is the index of the hand card played last on the stack,
+     * or {@code cards} while the original top is still on it.
+     */
+    private boolean canWin(int remaining, int top1, int top2, int top3, int top4) {
+        if (remaining == 0)
+            return true;
+
+        for (int card = 0; card < cards; card++) {
+            if ((remaining & 1 << card) == 0)
+                continue;
+            int rest = remaining & ~(1 << card);
+            if (canPlayUp(0, top1, card) && canWin(rest, card, top2, top3, top4))
+                return true;
+            if (canPlayUp(1, top2, card) && canWin(rest, top1, card, top3, top4))
+                return true;
+            if (canPlayDown(2, top3, card) && canWin(rest, top1, top2, card, top4))
+                return true;
+            if (canPlayDown(3, top4, card) && canWin(rest, top1, top2, top3, card))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean canPlayUp(int stack, int top, int card) {
+        if (top == cards)
+            return card >= ranks[stack] || card == backs[stack];
+        return card > top || isPair(card, top);
+    }
+
+    private boolean canPlayDown(int stack, int top, int card) {
+        if (top == cards)
+            return card < ranks[stack] || card == backs[stack];
+        return card < top || isPair(top, card);
+    }
+
+    private boolean isPair(int lower, int higher) {
+        return lower < higher && (pairs & 1 << Tablebase.pairBit(lower, higher)) != 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var file = Paths.get(args.length > 0 ? args[0] : "endgame.tb");
+        int maxCards = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long start = System.nanoTime();
+        new TablebaseGenerator().generate(file, maxCards);
+        System.out.println("Generated " + file + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,98 @@
+package solver;
+
+import core.CardMask;
+import core.PackedGame;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class TablebaseTest {
+
+    private static final int MAX_CARDS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMatchesSolver() throws IOException {
+        var file = folder.getRoot().toPath().resolve("endgame.tb");
+        new TablebaseGenerator().generate(file, MAX_CARDS);
+        var tablebase = new Tablebase(file);
+        var solver = new DealSolver(1 << 20, Long.MAX_VALUE);
+        var random = new SplittableRandom(17L);
+
+        for (int i = 0; i < 5_000; i++) {
+            var game = randomEndgame(random, 1 + random.nextInt(MAX_CARDS));
+            assertEquals(solver.solve(game.copy()).getOutcome(), tablebase.probe(game));
+        }
+    }
+
+    @Test
+    public void testSolverCutsLostEndgamesWithoutChangingResults() throws IOException {
+        var file = folder.getRoot().toPath().resolve("endgame.tb");
+        new TablebaseGenerator().generate(file, MAX_CARDS);
+        var tablebase = new Tablebase(file);
+        var plain = new DealSolver(1 << 20, Long.MAX_VALUE);
+        var cutting = new DealSolver(1 << 20, Long.MAX_VALUE, tablebase);
+        var random = new SplittableRandom(18L);
+
+        int cuts = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // With cards left in the deck the tablebase is only probed deeper in the search
+            var game = randomEndgame(random, 1 + random.nextInt(MAX_CARDS), random.nextInt(3));
+            var expected = plain.solve(game.copy());
+            var actual = cutting.solve(game.copy());
+            assertEquals(expected.getOutcome(), actual.getOutcome());
+
+            // Most lost endgames already contain a dead card, the others are only cut by the tablebase
+            if (tablebase.probe(game) == SolverResult.Outcome.LOSS && !game.hasDeadCard()) {
+                assertEquals(1, actual.getNodes());
+                assertTrue(expected.getNodes() > 1);
+                cuts++;
+            }
+        }
+        assertTrue(cuts > 0);
+    }
+
+    private static PackedGame randomEndgame(SplittableRandom random, int cards) {
+        return randomEndgame(random, cards, 0);
+    }
+
+    /**
+     * Creates a position with a short deck. Cards are drawn from a narrow range, so they are often 10 apart.
+     */
+    private static PackedGame randomEndgame(SplittableRandom random, int cards, int deckCards) {
+        var used = new CardMask();
+        var hand = new CardMask();
+        while (hand.size() < cards) {
+            int card = 30 + random.nextInt(40);
+            hand.add(card);
+            used.add(card);
+        }
+        var deck = new byte[deckCards];
+        for (int i = 0; i < deck.length; i++) {
+            int card;
+            do {
+                card = 30 + random.nextInt(40);
+            } while (used.contains(card));
+            used.add(card);
+            deck[i] = (byte) card;
+        }
+
+        var tops = new int[4];
+        for (int stack = 0; stack < 4; stack++) {
+            int top;
+            do {
+                top = 25 + random.nextInt(50);
+            } while (used.contains(top));
+            used.add(top);
+            tops[stack] = top;
+        }
+        return new PackedGame(hand, tops, deck, 0);
+    }
+}
@@ -0,0 +1,104 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table remembering positions that are proven to be lost.
+ * Entries are grouped into buckets of two. When a bucket is full the entry whose proof
+ * took fewer nodes is replaced, since it is the cheapest one to find again.
+ */
+public class TranspositionTable {
+
+    private static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES;
+    private static final int BUCKET_SIZE = 2;
+    private static final long EMPTY = 0L;
+
+    private final long[] keys;
+    private final int[] work;
+    private final int bucketMask;
+    private long stored;
+    private long evicted;
+
+    /**
+     * Creates a table that uses at most the given amount of memory.
+     *
+     * @param maxBytes The memory budget of the table in bytes
+     */
+    public TranspositionTable(long maxBytes) {
+        long entries = Math.max(BUCKET_SIZE, maxBytes / BYTES_PER_ENTRY);
+        int capacity = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[capacity];
+        work = new int[capacity];
+        bucketMask = capacity / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * Checks whether the position with the given key is known to be lost.
+     *
+     * @param key The hash of the position
+     * @return true if the position was stored
+     */
+    public boolean contains(long key) {
+        key = nonEmpty(key);
+        int slot = bucket(key);
+        return keys[slot] == key || keys[slot + 1] == key;
+    }
+
+    /**
+     * Forgets all positions, e.g. before solving another deal.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(work, 0);
+        stored = 0;
+        evicted = 0;
+    }
+
+    /**
+     * Stores a lost position.
+     *
+     * @param key   The hash of the position
+     * @param nodes The amount of nodes searched to prove the loss
+     */
+    public void store(long key, long nodes) {
+        key = nonEmpty(key);
+        int slot = bucket(key);
+        int effort = (int) Math.min(nodes, Integer.MAX_VALUE);
+
+        if (keys[slot] == key || keys[slot] == EMPTY) {
+            write(slot, key, effort);
+        } else if (keys[slot + 1] == key || keys[slot + 1] == EMPTY) {
+            write(slot + 1, key, effort);
+        } else {
+            evicted++;
+            write(work[slot] <= work[slot + 1] ? slot : slot + 1, key, effort);
+        }
+    }
+
+    private void write(int slot, long key, int effort) {
+        if (keys[slot] != key)
+            stored++;
+        keys[slot] = key;
+        work[slot] = effort;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+    }
+
+    private static long nonEmpty(long key) {
+        return key == EMPTY ? 1L : key;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getStored() {
+        return stored;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+}
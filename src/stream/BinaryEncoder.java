@@ -0,0 +1,62 @@
+package stream;
+
+import core.actions.ActionResult;
+import main.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes every state as a frame of 34 bytes, all numbers big endian:
+ * <pre>
+ * u16 length of the rest of the frame (32)
+ * u8  kind of the frame, 0 for a state
+ * i64 version
+ * u8  top of stack 1, 2, 3 and 4
+ * u8  cards remaining in the deck
+ * u8  cards played in the current turn
+ * u8  outcome, 0 while the game is running, 1 if it is won and 2 if it is lost
+ * i64 hand cards 0 - 63, bit i set if card i is in the hand
+ * i64 hand cards 64 - 127
+ * </pre>
+ * A message is a frame of kind 1 followed by the ASCII characters of the message.
+ */
+public class BinaryEncoder implements StateEncoder {
+
+    public static final int FRAME_BYTES = 34;
+    public static final byte STATE_FRAME = 0;
+    public static final byte MESSAGE_FRAME = 1;
+    public static final byte RUNNING = 0;
+    public static final byte WON = 1;
+    public static final byte LOST = 2;
+
+    private static final int BODY_BYTES = FRAME_BYTES - Short.BYTES;
+    private static final int MAX_MESSAGE_FRAME_BYTES = Short.BYTES + 1 + MAX_MESSAGE_CHARS;
+
+    @Override
+    public int maxFrameBytes() {
+        return Math.max(FRAME_BYTES, MAX_MESSAGE_FRAME_BYTES);
+    }
+
+    @Override
+    public void encode(State state, ActionResult outcome, ByteBuffer target) {
+        target.putShort((short) BODY_BYTES)
+                .put(STATE_FRAME)
+                .putLong(state.getVersion())
+                .putInt(Integer.reverseBytes(state.getPackedTops()))
+                .put((byte) (int) state.remainingCards())
+                .put((byte) state.getCardsPlayed())
+                .put(outcome == ActionResult.GAME_WON ? WON : outcome == ActionResult.GAME_LOST ? LOST : RUNNING)
+                .putLong(state.getHandLow())
+                .putLong(state.getHandHigh());
+    }
+
+    @Override
+    public void encodeMessage(String message, ByteBuffer target) {
+        int length = StateEncoder.messageLength(message);
+        target.putShort((short) (1 + length))
+                .put(MESSAGE_FRAME);
+        for (int i = 0; i < length; i++) {
+            target.put(StateEncoder.asciiAt(message, i));
+        }
+    }
+}
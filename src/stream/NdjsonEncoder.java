@@ -0,0 +1,107 @@
+package stream;
+
+import core.actions.ActionResult;
+import main.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes every state as one line of JSON:
+ * <pre>
+ * {"version":12,"tops":[1,1,99,99],"deck":81,"played":0,"hand":[3,17,24,50,61,70,88,93]}
+ * </pre>
+ * The tops are ordered like the stack numbers of the actions, 1 and 2 go up, 3 and 4 go down.
+ * The state of a game that is over ends with {@code ,"outcome":"won"} or {@code ,"outcome":"lost"}.
+ * A message is a line of its own: {@code {"message":"You can't make this action, please try again!"}}
+ */
+public class NdjsonEncoder implements StateEncoder {
+
+    private static final byte[] VERSION = ascii("{\"version\":");
+    private static final byte[] TOPS = ascii(",\"tops\":[");
+    private static final byte[] DECK = ascii("],\"deck\":");
+    private static final byte[] PLAYED = ascii(",\"played\":");
+    private static final byte[] HAND = ascii(",\"hand\":[");
+    private static final byte[] END = ascii("]}\n");
+    private static final byte[] WON = ascii("],\"outcome\":\"won\"}\n");
+    private static final byte[] LOST = ascii("],\"outcome\":\"lost\"}\n");
+    private static final byte[] MESSAGE = ascii("{\"message\":\"");
+    private static final byte[] MESSAGE_END = ascii("\"}\n");
+
+    private static final int MAX_FRAME_BYTES = 256;
+
+    @Override
+    public int maxFrameBytes() {
+        return MAX_FRAME_BYTES;
+    }
+
+    @Override
+    public void encode(State state, ActionResult outcome, ByteBuffer target) {
+        target.put(VERSION);
+        putNumber(state.getVersion(), target);
+
+        target.put(TOPS);
+        for (int stack = 1; stack <= 4; stack++) {
+            if (stack > 1)
+                target.put((byte) ',');
+            putNumber(state.getTop(stack), target);
+        }
+
+        target.put(DECK);
+        putNumber(state.remainingCards(), target);
+        target.put(PLAYED);
+        putNumber(state.getCardsPlayed(), target);
+
+        target.put(HAND);
+        boolean first = true;
+        first = putCards(state.getHandLow(), 0, first, target);
+        putCards(state.getHandHigh(), Long.SIZE, first, target);
+        if (outcome == ActionResult.GAME_WON)
+            target.put(WON);
+        else if (outcome == ActionResult.GAME_LOST)
+            target.put(LOST);
+        else
+            target.put(END);
+    }
+
+    @Override
+    public void encodeMessage(String message, ByteBuffer target) {
+        target.put(MESSAGE);
+        int length = StateEncoder.messageLength(message);
+        for (int i = 0; i < length; i++) {
+            byte character = StateEncoder.asciiAt(message, i);
+            if (character == '"' || character == '\\')
+                target.put((byte) '\\');
+            target.put(character);
+        }
+        target.put(MESSAGE_END);
+    }
+
+    private static boolean putCards(long cards, int offset, boolean first, ByteBuffer target) {
+        while (cards != 0) {
+            if (!first)
+                target.put((byte) ',');
+            putNumber(offset + Long.numberOfTrailingZeros(cards), target);
+            cards &= cards - 1;
+            first = false;
+        }
+        return first;
+    }
+
+    /**
+     * Writes a non negative number as decimal digits.
+     */
+    private static void putNumber(long value, ByteBuffer target) {
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            target.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,35 @@
+package stream;
+
+/**
+ * How the text interface reports the state of the game.
+ */
+public enum OutputMode {
+    /**
+     * Messages for humans.
+     */
+    TEXT,
+    /**
+     * One JSON object per line, see {@link NdjsonEncoder}.
+     */
+    NDJSON,
+    /**
+     * Length prefixed binary frames, see {@link BinaryEncoder}.
+     */
+    BINARY;
+
+    /**
+     * Returns the encoder of the mode.
+     *
+     * @return The encoder or null for TEXT
+     */
+    public StateEncoder createEncoder() {
+        switch (this) {
+            case NDJSON:
+                return new NdjsonEncoder();
+            case BINARY:
+                return new BinaryEncoder();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package stream;
+
+import core.actions.ActionResult;
+import main.State;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes game states into frames for machines instead of humans.
+ * Encoders write straight into the given buffer and do not allocate.
+ */
+public interface StateEncoder {
+
+    /**
+     * Longer messages are cut off, so a message frame is never larger than {@link #maxFrameBytes()}.
+     */
+    int MAX_MESSAGE_CHARS = 120;
+
+    /**
+     * Returns an upper bound for the size of a single frame.
+     *
+     * @return The maximum frame size in bytes
+     */
+    int maxFrameBytes();
+
+    /**
+     * Writes one frame for the state of a game that is not over.
+     *
+     * @param state  The state to encode
+     * @param target The buffer the frame is written to, it needs at least {@link #maxFrameBytes()} bytes left
+     */
+    default void encode(State state, ByteBuffer target) {
+        encode(state, ActionResult.TURN_END, target);
+    }
+
+    /**
+     * Writes one frame for the state.
+     *
+     * @param state   The state to encode
+     * @param outcome GAME_WON, GAME_LOST or TURN_END for games that are not over
+     * @param target  The buffer the frame is written to, it needs at least {@link #maxFrameBytes()} bytes left
+     */
+    void encode(State state, ActionResult outcome, ByteBuffer target);
+
+    /**
+     * Writes one frame for a message that is not reflected by the state, e.g. that an action was invalid or a hint.
+     * Only ASCII is kept, other characters are replaced by '?'.
+     *
+     * @param message The message, a trailing line break is left out
+     * @param target  The buffer the frame is written to, it needs at least {@link #maxFrameBytes()} bytes left
+     */
+    void encodeMessage(String message, ByteBuffer target);
+
+    /**
+     * Returns the amount of characters of a message that are encoded.
+     *
+     * @param message The message
+     * @return The length without a trailing line break, at most {@link #MAX_MESSAGE_CHARS}
+     */
+    static int messageLength(String message) {
+        int length = message.endsWith("\n") ? message.length() - 1 : message.length();
+        return Math.min(length, MAX_MESSAGE_CHARS);
+    }
+
+    /**
+     * Returns a character of a message as ASCII.
+     *
+     * @param message The message
+     * @param index   The index of the character
+     * @return The character, '?' if it is not printable ASCII
+     */
+    static byte asciiAt(String message, int index) {
+        char character = message.charAt(index);
+        return character >= ' ' && character < 127 ? (byte) character : (byte) '?';
+    }
+}
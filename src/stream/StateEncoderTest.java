@@ -0,0 +1,87 @@
+package stream;
+
+import core.actions.ActionResult;
+import main.GameController;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class StateEncoderTest {
+
+    @Test
+    public void testNdjsonFrame() {
+        var state = new GameController(1L).getGameState();
+        var buffer = ByteBuffer.allocate(256);
+        new NdjsonEncoder().encode(state, buffer);
+
+        var hand = new StringBuilder();
+        var mask = state.getHandMask();
+        for (int card = mask.next(0); card != -1; card = mask.next(card + 1)) {
+            hand.append(hand.length() == 0 ? "" : ",").append(card);
+        }
+        String expected = "{\"version\":0,\"tops\":[1,1,99,99],\"deck\":89,\"played\":0,\"hand\":[" + hand + "]}\n";
+        assertEquals(expected, new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testBinaryFrame() {
+        var state = new GameController(1L).getGameState();
+        var buffer = ByteBuffer.allocate(BinaryEncoder.FRAME_BYTES);
+        new BinaryEncoder().encode(state, buffer);
+
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        assertEquals(BinaryEncoder.FRAME_BYTES - 2, buffer.getShort());
+        assertEquals(BinaryEncoder.STATE_FRAME, buffer.get());
+        assertEquals(0L, buffer.getLong());
+        assertEquals(1, buffer.get());
+        assertEquals(1, buffer.get());
+        assertEquals(99, buffer.get());
+        assertEquals(99, buffer.get());
+        assertEquals(89, buffer.get());
+        assertEquals(0, buffer.get());
+        assertEquals(BinaryEncoder.RUNNING, buffer.get());
+        assertEquals(state.getHandLow(), buffer.getLong());
+        assertEquals(state.getHandHigh(), buffer.getLong());
+    }
+
+    @Test
+    public void testOutcomeOfFinishedGame() {
+        var state = new GameController(1L).getGameState();
+        var buffer = ByteBuffer.allocate(256);
+        new NdjsonEncoder().encode(state, ActionResult.GAME_LOST, buffer);
+        String frame = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+        assertTrue(frame.endsWith("],\"outcome\":\"lost\"}\n"));
+
+        buffer.clear();
+        new BinaryEncoder().encode(state, ActionResult.GAME_WON, buffer);
+        assertEquals(BinaryEncoder.WON, buffer.get(2 + 1 + 8 + 4 + 2));
+    }
+
+    @Test
+    public void testMessageFrames() {
+        var encoder = new NdjsonEncoder();
+        var buffer = ByteBuffer.allocate(encoder.maxFrameBytes());
+        encoder.encodeMessage("Say \"C12-3\" \\ or S\n", buffer);
+        assertEquals("{\"message\":\"Say \\\"C12-3\\\" \\\\ or S\"}\n",
+                new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+
+        // The longest message still fits, even if every character needs to be escaped
+        buffer.clear();
+        encoder.encodeMessage("\"".repeat(1000), buffer);
+
+        var binary = new BinaryEncoder();
+        buffer = ByteBuffer.allocate(binary.maxFrameBytes());
+        binary.encodeMessage("Hint: S\n", buffer);
+        buffer.flip();
+        assertEquals(8, buffer.getShort());
+        assertEquals(BinaryEncoder.MESSAGE_FRAME, buffer.get());
+        var text = new byte[7];
+        buffer.get(text);
+        assertEquals("Hint: S", new String(text, StandardCharsets.US_ASCII));
+        assertFalse(buffer.hasRemaining());
+    }
+}
@@ -0,0 +1,79 @@
+package stream;
+
+import core.actions.ActionResult;
+import main.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes encoded states to a stream. Frames are collected in a buffer that is reused for the whole stream
+ * and only written when it is full or when {@link #flush()} is called, so callers should only flush
+ * when the reader has to see the frames, e.g. before waiting for its next action.
+ */
+public class StateStreamWriter {
+
+    private static final int BUFFER_BYTES = 16 * 1024;
+
+    private final OutputStream out;
+    private final StateEncoder encoder;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+
+    public StateStreamWriter(OutputStream out, StateEncoder encoder) {
+        this.out = out;
+        this.encoder = encoder;
+    }
+
+    public void write(State state) {
+        write(state, ActionResult.TURN_END);
+    }
+
+    /**
+     * Writes the state of a game, including its outcome if it is over.
+     *
+     * @param state   The state
+     * @param outcome GAME_WON, GAME_LOST or TURN_END for games that are not over
+     */
+    public void write(State state, ActionResult outcome) {
+        makeRoom();
+        encoder.encode(state, outcome, buffer);
+    }
+
+    /**
+     * Writes a message that is not reflected by the state, see {@link StateEncoder#encodeMessage(String, ByteBuffer)}.
+     *
+     * @param message The message
+     */
+    public void writeMessage(String message) {
+        makeRoom();
+        encoder.encodeMessage(message, buffer);
+    }
+
+    private void makeRoom() {
+        if (buffer.remaining() < encoder.maxFrameBytes())
+            writeBuffer();
+    }
+
+    /**
+     * Writes all collected frames and flushes the stream.
+     */
+    public void flush() {
+        writeBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            out.write(buffer.array(), 0, buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}